@@ -0,0 +1,51 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.vavr.Lazy;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Binary Jackson formats that can replace json on the wire. Each format needs its own optional
+ * {@code jackson-dataformat} dependency on the classpath, loaded only when the format is used.
+ */
+public enum BinaryCodec {
+
+    // lambdas rather than constructor references: a missing format dependency only fails when that format is used
+    SMILE("application/x-jackson-smile", () -> new SmileFactory()),
+    CBOR("application/cbor", () -> new CBORFactory());
+
+    private final String mediaType;
+    private final Lazy<JsonFactory> factory;
+
+    BinaryCodec(String mediaType, Supplier<JsonFactory> factory) {
+        this.mediaType = mediaType;
+        this.factory = Lazy.of(factory);
+    }
+
+    public String mediaType() {
+        return mediaType;
+    }
+
+    public JsonFactory factory() {
+        return factory.get();
+    }
+
+    /**
+     * @return the codec of a Content-Type header value, or null when it isn't a binary codec one.
+     */
+    public static BinaryCodec of(String contentType) {
+        if (contentType == null)
+            return null;
+        int params = contentType.indexOf(';');
+        String media = (params < 0 ? contentType : contentType.substring(0, params)).trim().toLowerCase(Locale.ROOT);
+        for (BinaryCodec codec : values()) {
+            if (codec.mediaType.equals(media))
+                return codec;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,205 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Caches the host of a slow {@link DynamicHostResolver} so calls don't resolve it every time.
+ * <p>
+ * A host is used for {@code ttl}. From {@code refreshAhead} before it expires, the first call asks a background
+ * refresh and keeps using the cached host, so callers only wait the delegate on the first call or after a long idle
+ * time; even then a single caller waits, the others keep using the expired host meanwhile. When the delegate fails,
+ * the expired host is still used for {@code staleIfError} while the next calls retry.
+ */
+public final class CachingHostResolver implements DynamicHostResolver {
+
+    private static final Logger log = LoggerFactory.getLogger(CachingHostResolver.class);
+
+    private final DynamicHostResolver delegate;
+    private final long ttlNanos;
+    private final long refreshAheadNanos;
+    private final long staleIfErrorNanos;
+    private final Executor refreshExecutor;
+    private final LongSupplier nanoClock;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final ReentrantLock resolving = new ReentrantLock();
+    private volatile Entry entry;
+
+    private CachingHostResolver(Builder builder, Duration refreshAhead) {
+        this.delegate = builder.delegate;
+        this.ttlNanos = builder.ttl.toNanos();
+        this.refreshAheadNanos = refreshAhead.toNanos();
+        this.staleIfErrorNanos = builder.staleIfError.toNanos();
+        this.refreshExecutor = builder.refreshExecutor != null ? builder.refreshExecutor : DefaultRefreshExecutor.INSTANCE;
+        this.nanoClock = builder.nanoClock;
+    }
+
+    public static Builder builder(DynamicHostResolver delegate) {
+        return new Builder(delegate);
+    }
+
+    @Override
+    public String getHost() {
+        Entry current = entry;
+        if (current != null) {
+            long age = nanoClock.getAsLong() - current.resolvedAtNanos;
+            if (age < ttlNanos) {
+                if (age >= ttlNanos - refreshAheadNanos)
+                    refreshInBackground();
+                return current.host;
+            }
+        }
+        return resolveExpired();
+    }
+
+    /**
+     * Only one caller resolves an expired host. The others keep the expired one meanwhile, or wait for the result when
+     * there is no host yet.
+     */
+    private String resolveExpired() {
+        Entry stale = entry;
+        if (stale != null) {
+            if (!resolving.tryLock())
+                return stale.host;
+        } else {
+            resolving.lock();
+        }
+        try {
+            Entry current = entry;
+            long now = nanoClock.getAsLong();
+            if (current != null && now - current.resolvedAtNanos < ttlNanos)
+                return current.host;
+            try {
+                return resolve().host;
+            } catch (RuntimeException e) {
+                if (current == null || now - current.resolvedAtNanos >= ttlNanos + staleIfErrorNanos)
+                    throw e;
+                log.warn("Host resolution failed, using the stale host [{}]", current.host, e);
+                return current.host;
+            }
+        } finally {
+            resolving.unlock();
+        }
+    }
+
+    private void refreshInBackground() {
+        if (!refreshing.compareAndSet(false, true))
+            return;
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    resolve();
+                } catch (RuntimeException e) {
+                    log.warn("Background host resolution failed, keeping the cached host", e);
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.set(false);
+        }
+    }
+
+    private Entry resolve() {
+        String host = delegate.getHost();
+        if (host == null || host.isEmpty())
+            throw new IllegalStateException("Host resolver returned an empty host");
+        Entry resolved = new Entry(host, nanoClock.getAsLong());
+        entry = resolved;
+        return resolved;
+    }
+
+    private static final class Entry {
+        private final String host;
+        private final long resolvedAtNanos;
+
+        private Entry(String host, long resolvedAtNanos) {
+            this.host = host;
+            this.resolvedAtNanos = resolvedAtNanos;
+        }
+    }
+
+    /**
+     * Single daemon thread shared by the resolvers without their own executor, created on the first refresh.
+     */
+    private static final class DefaultRefreshExecutor {
+        private static final ExecutorService INSTANCE = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "feign-connector-host-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static class Builder {
+        private final DynamicHostResolver delegate;
+        private Duration ttl = Duration.ofSeconds(30);
+        private Duration refreshAhead;
+        private Duration staleIfError = Duration.ZERO;
+        private Executor refreshExecutor;
+        private LongSupplier nanoClock = System::nanoTime;
+
+        private Builder(DynamicHostResolver delegate) {
+            this.delegate = Objects.requireNonNull(delegate, "delegate is null");
+        }
+
+        /**
+         * How long a resolved host is used. Defaults to 30 seconds.
+         */
+        public Builder ttl(Duration ttl) {
+            if (ttl.isNegative() || ttl.isZero())
+                throw new IllegalArgumentException("Ttl must be positive");
+            this.ttl = ttl;
+            return this;
+        }
+
+        /**
+         * How long before the host expires a background refresh starts. Defaults to a fifth of the ttl, zero disables it.
+         */
+        public Builder refreshAhead(Duration refreshAhead) {
+            if (refreshAhead.isNegative())
+                throw new IllegalArgumentException("Refresh ahead must not be negative");
+            this.refreshAhead = refreshAhead;
+            return this;
+        }
+
+        /**
+         * How long after expiration the host is still used while the delegate fails. Defaults to zero.
+         */
+        public Builder staleIfError(Duration staleIfError) {
+            if (staleIfError.isNegative())
+                throw new IllegalArgumentException("Stale if error must not be negative");
+            this.staleIfError = staleIfError;
+            return this;
+        }
+
+        /**
+         * Runs the background refreshes, by default a daemon thread shared by all resolvers.
+         */
+        public Builder refreshExecutor(Executor refreshExecutor) {
+            this.refreshExecutor = Objects.requireNonNull(refreshExecutor, "refreshExecutor is null");
+            return this;
+        }
+
+        Builder nanoClock(LongSupplier nanoClock) {
+            this.nanoClock = nanoClock;
+            return this;
+        }
+
+        public CachingHostResolver build() {
+            Duration refreshAhead = this.refreshAhead != null ? this.refreshAhead : ttl.dividedBy(5);
+            if (refreshAhead.compareTo(ttl) >= 0)
+                throw new IllegalArgumentException("Refresh ahead must be shorter than ttl");
+            return new CachingHostResolver(this, refreshAhead);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import feign.Feign;
+import feign.InvocationHandlerFactory;
+import feign.Target;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Feign decoders don't know which client method is being called, so the invocation handler keeps the method key and
+ * the call start time of the current thread's call where decoders can find them. Methods returning
+ * {@link ClientResponse} get their errors as a {@link ClientResponse} instead of an exception, and methods returning
+ * {@link CompletableFuture}, {@code Mono} or {@code Flux} run the whole call, encoding to decoding, on the async
+ * executor.
+ */
+final class CallContext {
+
+    private static final ThreadLocal<CallContext> CURRENT = new ThreadLocal<>();
+
+    final String methodKey;
+    final long startNanos;
+
+    private CallContext(String methodKey, long startNanos) {
+        this.methodKey = methodKey;
+        this.startNanos = startNanos;
+    }
+
+    static CallContext current() {
+        return CURRENT.get();
+    }
+
+    static String methodKey() {
+        CallContext context = CURRENT.get();
+        return context == null ? null : context.methodKey;
+    }
+
+    /**
+     * @return nanos since the current call started or -1 when called outside a client call.
+     */
+    static long elapsedNanos() {
+        CallContext context = CURRENT.get();
+        return context == null ? -1 : System.nanoTime() - context.startNanos;
+    }
+
+    static InvocationHandlerFactory factory(InvocationHandlerFactory delegate) {
+        return factory(delegate, null);
+    }
+
+    /**
+     * @param asyncExecutor runs methods returning {@link CompletableFuture}, {@code Mono} or {@code Flux}; when null
+     *                      futures run on a shared bounded pool of {@code feign-connector-async} threads and
+     *                      reactive calls on reactor's elastic scheduler.
+     */
+    static InvocationHandlerFactory factory(InvocationHandlerFactory delegate, Executor asyncExecutor) {
+        return (target, dispatch) -> new Handler(target, delegate.create(target, dispatch), asyncExecutor);
+    }
+
+    private static final class Handler implements InvocationHandler {
+        private final Target<?> target;
+        private final InvocationHandler delegate;
+        private final Executor asyncExecutor;
+        private final Map<Method, MethodInfo> methods = new ConcurrentHashMap<>();
+        private volatile ReactiveCalls reactiveCalls;
+
+        private Handler(Target<?> target, InvocationHandler delegate, Executor asyncExecutor) {
+            this.target = target;
+            this.delegate = delegate;
+            this.asyncExecutor = asyncExecutor;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class)
+                return delegate.invoke(proxy, method, args);
+            MethodInfo info = methods.computeIfAbsent(method, m -> new MethodInfo(Feign.configKey(target.type(), m), m));
+            switch (info.execution) {
+                case FUTURE:
+                    return future(proxy, method, args, info);
+                case MONO:
+                    return reactiveCalls().mono(() -> callable(proxy, method, args, info));
+                case FLUX:
+                    return reactiveCalls().flux(() -> callable(proxy, method, args, info));
+                default:
+                    return call(proxy, method, args, info);
+            }
+        }
+
+        private CompletableFuture<Object> future(Object proxy, Method method, Object[] args, MethodInfo info) {
+            CompletableFuture<Object> future = new CompletableFuture<>();
+            Runnable task = () -> {
+                try {
+                    future.complete(call(proxy, method, args, info));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            };
+            try {
+                (asyncExecutor != null ? asyncExecutor : DefaultAsyncExecutor.INSTANCE).execute(task);
+            } catch (RejectedExecutionException e) {
+                future.completeExceptionally(e);
+            }
+            return future;
+        }
+
+        private ReactiveCalls reactiveCalls() {
+            if (reactiveCalls == null)
+                reactiveCalls = new ReactiveCalls(asyncExecutor);
+            return reactiveCalls;
+        }
+
+        private Object callable(Object proxy, Method method, Object[] args, MethodInfo info) throws Exception {
+            try {
+                return call(proxy, method, args, info);
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        }
+
+        private Object call(Object proxy, Method method, Object[] args, MethodInfo info) throws Throwable {
+            CallContext previous = CURRENT.get();
+            CURRENT.set(new CallContext(info.methodKey, System.nanoTime()));
+            try {
+                return delegate.invoke(proxy, method, args);
+            } catch (ClientResponseErrorDecoder.ClientResponseException e) {
+                if (info.clientResponse)
+                    return ClientResponse.error(e.response, e.httpStatusResponse);
+                throw e;
+            } finally {
+                if (previous == null)
+                    CURRENT.remove();
+                else
+                    CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Holder, so the pool threads only start when a future method is called without an async executor.
+     */
+    private static final class DefaultAsyncExecutor {
+        private static final int THREADS = Math.max(16, 4 * Runtime.getRuntime().availableProcessors());
+        private static final int QUEUE_SIZE = 1024;
+        private static final ThreadPoolExecutor INSTANCE = newExecutor();
+
+        private static ThreadPoolExecutor newExecutor() {
+            AtomicInteger count = new AtomicInteger();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(THREADS, THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(QUEUE_SIZE), task -> {
+                Thread thread = new Thread(task, "feign-connector-async-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+
+    private enum Execution {
+        BLOCKING, FUTURE, MONO, FLUX
+    }
+
+    private static final class MethodInfo {
+        private final String methodKey;
+        private final Execution execution;
+        private final boolean clientResponse;
+
+        private MethodInfo(String methodKey, Method method) {
+            this.methodKey = methodKey;
+            this.execution = execution(method.getReturnType());
+            Type result = execution == Execution.BLOCKING ? method.getGenericReturnType() : ReturnTypes.typeArgument(method.getGenericReturnType());
+            this.clientResponse = execution != Execution.FLUX && ReturnTypes.rawType(result) == ClientResponse.class;
+        }
+
+        private static Execution execution(Class<?> returnType) {
+            if (returnType == CompletableFuture.class)
+                return Execution.FUTURE;
+            if (ReturnTypes.isMono(returnType))
+                return Execution.MONO;
+            if (ReturnTypes.isFlux(returnType))
+                return Execution.FLUX;
+            return Execution.BLOCKING;
+        }
+    }
+}
@@ -5,9 +5,13 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonUnwrapped;
 import org.springframework.http.HttpStatus;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -28,10 +32,10 @@ public class ClientResponse<T> {
     ClientResponse() {
     }
 
-    private static <T> ClientResponse<T> successFull(T response){
+    static <T> ClientResponse<T> successFull(T response){
         return new ClientResponse<>(null, response, null, false);
     }
-    private static <T> ClientResponse<T> error(ErrorResponse error, int httpStatus){
+    static <T> ClientResponse<T> error(ErrorResponse error, int httpStatus){
         return new ClientResponse<>(error, null, httpStatus, true);
     }
 
@@ -43,6 +47,42 @@ public class ClientResponse<T> {
         }
     }
 
+    /**
+     * Runs {@code feingCall} on {@code executor}, completing with its success or error response. Other failures
+     * complete the future exceptionally.
+     */
+    public static <T> CompletableFuture<ClientResponse<T>> ofAsync(Supplier<T> feingCall, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> of(feingCall), executor);
+    }
+
+    /**
+     * Runs the calls concurrently as configured by {@code fanOut}, failing fast: the first error cancels the calls
+     * still running.
+     *
+     * @return the values in calls order, or the first error with every error known by call index in its
+     * {@code errors} metadata.
+     */
+    public static <T> ClientResponse<List<T>> all(List<? extends Supplier<T>> calls, FanOut fanOut) {
+        return fanOut.all(calls);
+    }
+
+    /**
+     * Runs the calls concurrently as configured by {@code fanOut} until one succeeds, cancelling the others.
+     *
+     * @return the first success, or the error of the first call with every error by call index in its {@code errors}
+     * metadata.
+     */
+    public static <T> ClientResponse<T> firstSuccess(List<? extends Supplier<T>> calls, FanOut fanOut) {
+        return fanOut.firstSuccess(calls);
+    }
+
+    /**
+     * Same as {@link #all} with one {@code call} for each item.
+     */
+    public static <I, T> ClientResponse<List<T>> traverse(Collection<I> items, Function<? super I, ? extends T> call, FanOut fanOut) {
+        return fanOut.traverse(items, call);
+    }
+
     @JsonIgnore
     public boolean isError() {
         return this.isError;
@@ -1,10 +1,15 @@
 package br.org.abnerrolim.spring.feign.connector;
 
+import br.org.abnerrolim.spring.feign.connector.logging.AsyncExchangeLogger;
+import br.org.abnerrolim.spring.feign.connector.logging.Exchange;
+import br.org.abnerrolim.spring.feign.connector.logging.LogSampling;
+import br.org.abnerrolim.spring.feign.connector.obfuscate.CapturingInputStream;
 import br.org.abnerrolim.spring.feign.connector.obfuscate.HttpObfuscator;
 import br.org.abnerrolim.spring.feign.connector.obfuscate.NoneHttpObfuscator;
 import br.org.abnerrolim.spring.feign.connector.obfuscate.ResponseWrapper;
 import feign.FeignException;
 import feign.Response;
+import feign.Util;
 import feign.codec.Decoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,16 +20,23 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.concurrent.CompletableFuture;
 
 public class ClientResponseDecoder extends ResponseEntityDecoder {
     private HttpObfuscator httpObfuscator;
     private String moduleName;
+    private AsyncExchangeLogger exchangeLogger;
+    private LogSampling logSampling = LogSampling.always();
+    private int streamingLogSize;
 
+    private static final int DEFAULT_LAZY_LOG_SIZE = 4096;
     private static final Logger log = LoggerFactory.getLogger(ClientResponseDecoder.class);
 
     public ClientResponseDecoder(Decoder decoder, HttpObfuscator httpObfuscator, String moduleName) {
@@ -33,6 +45,25 @@ public class ClientResponseDecoder extends ResponseEntityDecoder {
         this.moduleName = moduleName;
     }
 
+    public ClientResponseDecoder(Decoder decoder, HttpObfuscator httpObfuscator, String moduleName, AsyncExchangeLogger exchangeLogger) {
+        this(decoder, httpObfuscator, moduleName);
+        this.exchangeLogger = exchangeLogger;
+    }
+
+    public ClientResponseDecoder(Decoder decoder, HttpObfuscator httpObfuscator, String moduleName, AsyncExchangeLogger exchangeLogger, LogSampling logSampling) {
+        this(decoder, httpObfuscator, moduleName, exchangeLogger);
+        this.logSampling = logSampling;
+    }
+
+    /**
+     * @param streamingLogSize when positive, bodies are decoded straight from the connection and only their first
+     *                         {@code streamingLogSize} bytes are handed to the obfuscator to be logged.
+     */
+    public ClientResponseDecoder(Decoder decoder, HttpObfuscator httpObfuscator, String moduleName, AsyncExchangeLogger exchangeLogger, LogSampling logSampling, int streamingLogSize) {
+        this(decoder, httpObfuscator, moduleName, exchangeLogger, logSampling);
+        this.streamingLogSize = streamingLogSize;
+    }
+
     public ClientResponseDecoder(Decoder decoder, String moduleName) {
         super(decoder);
         this.httpObfuscator = new NoneHttpObfuscator();
@@ -40,8 +71,74 @@ public class ClientResponseDecoder extends ResponseEntityDecoder {
     }
 
     public Object decode(Response response, Type type) throws IOException, FeignException {
-        ResponseWrapper wrapper = httpObfuscator.obfuscate(response);
-        log.info("{} Module - Request was [{}]. Response was [{}]", moduleName, httpObfuscator.obfuscate(response.request()), wrapper);
-        return super.decode(wrapper.getOriginalCopy(), type);
+        if (ReturnTypes.rawType(type) == CompletableFuture.class || ReturnTypes.isMono(type))
+            return decode(response, ReturnTypes.typeArgument(type));
+        if (ReturnTypes.rawType(type) == ClientResponse.class)
+            return ClientResponse.successFull(decode(response, ReturnTypes.typeArgument(type)));
+        boolean lazy = JsonArrayIterator.isLazy(type);
+        try {
+            if (!log.isInfoEnabled() || !logSampling.shouldLog(CallContext.methodKey(), response.status(), CallContext.elapsedNanos()))
+                return super.decode(response, type);
+            if (lazy && response.body() != null)
+                return decodeLazy(response, type);
+            if (streamingLogSize > 0 && response.body() != null)
+                return decodeStreaming(response, type);
+            ResponseWrapper wrapper = httpObfuscator.obfuscate(response);
+            try {
+                return super.decode(wrapper.getOriginalCopy(), type);
+            } finally {
+                if (exchangeLogger != null)
+                    exchangeLogger.submit(Exchange.success(log, httpObfuscator, moduleName, CallContext.methodKey(), wrapper.snapshot()));
+                else
+                    log.info("{} Module - Request was [{}]. Response was [{}]", moduleName, httpObfuscator.obfuscate(response.request()), wrapper);
+            }
+        } finally {
+            // lazy results own the body until they are consumed or closed
+            if (!lazy)
+                Util.ensureClosed(response.body());
+        }
+    }
+
+    private Object decodeStreaming(Response response, Type type) throws IOException {
+        CapturingInputStream capture = new CapturingInputStream(response.body().asInputStream(), streamingLogSize, response.body().length());
+        try {
+            return super.decode(response.toBuilder().body(capture, response.body().length()).build(), type);
+        } finally {
+            logCaptured(CallContext.methodKey(), response, capture);
+        }
+    }
+
+    /**
+     * The exchange is logged when the lazy result closes the body, with the prefix it read up to then.
+     */
+    private Object decodeLazy(Response response, Type type) throws IOException {
+        Integer length = response.body().length();
+        CapturingInputStream capture = new CapturingInputStream(response.body().asInputStream(),
+                streamingLogSize > 0 ? streamingLogSize : DEFAULT_LAZY_LOG_SIZE, length);
+        String methodKey = CallContext.methodKey();
+        InputStream body = new FilterInputStream(capture) {
+            private boolean logged;
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    if (!logged) {
+                        logged = true;
+                        logCaptured(methodKey, response, capture);
+                    }
+                } finally {
+                    super.close();
+                }
+            }
+        };
+        return super.decode(response.toBuilder().body(body, length).build(), type);
+    }
+
+    private void logCaptured(String methodKey, Response response, CapturingInputStream capture) throws IOException {
+        Response captured = capture.snapshotOf(response);
+        if (exchangeLogger != null)
+            exchangeLogger.submit(Exchange.success(log, httpObfuscator, moduleName, methodKey, captured));
+        else
+            log.info("{} Module - Request was [{}]. Response was [{}]", moduleName, httpObfuscator.obfuscate(response.request()), httpObfuscator.obfuscate(captured));
     }
 }
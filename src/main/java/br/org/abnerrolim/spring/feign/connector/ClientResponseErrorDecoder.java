@@ -1,80 +1,94 @@
 package br.org.abnerrolim.spring.feign.connector;
 
+import br.org.abnerrolim.spring.feign.connector.logging.AsyncExchangeLogger;
+import br.org.abnerrolim.spring.feign.connector.logging.Exchange;
+import br.org.abnerrolim.spring.feign.connector.logging.LogSampling;
 import br.org.abnerrolim.spring.feign.connector.obfuscate.HttpObfuscator;
 import br.org.abnerrolim.spring.feign.connector.obfuscate.NoneHttpObfuscator;
+import br.org.abnerrolim.spring.feign.connector.obfuscate.RequestWrapper;
 import br.org.abnerrolim.spring.feign.connector.obfuscate.ResponseWrapper;
 import br.org.abnerrolim.spring.feign.connector.utils.FeignJsonMapper;
-import com.fasterxml.jackson.databind.JsonNode;
 import feign.FeignException;
 import feign.Response;
 import feign.codec.ErrorDecoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.util.StringUtils;
 
 import java.util.Collections;
 import java.util.Map;
-import java.util.regex.Pattern;
 
 public class ClientResponseErrorDecoder implements ErrorDecoder {
 
-    private final FeignJsonMapper jsonMapper;
     private final HttpObfuscator httpObfuscator;
     private final String errorPrefix;
     private final String moduleName;
-    private final static Pattern JSON_MEDIA =  Pattern.compile(".*" + MediaType.APPLICATION_JSON_VALUE + ".*");
+    private final AsyncExchangeLogger exchangeLogger;
+    private final LogSampling logSampling;
+    private final ErrorBodyParsers errorBodyParsers;
     private static final Logger log = LoggerFactory.getLogger(ClientResponseErrorDecoder.class);
 
     public ClientResponseErrorDecoder(FeignJsonMapper jsonMapper, HttpObfuscator httpObfuscator, String errorPrefix, String moduleName) {
-        this.jsonMapper = jsonMapper;
+        this(jsonMapper, httpObfuscator, errorPrefix, moduleName, null);
+    }
+
+    public ClientResponseErrorDecoder(FeignJsonMapper jsonMapper, HttpObfuscator httpObfuscator, String errorPrefix, String moduleName, AsyncExchangeLogger exchangeLogger) {
+        this(jsonMapper, httpObfuscator, errorPrefix, moduleName, exchangeLogger, LogSampling.always());
+    }
+
+    public ClientResponseErrorDecoder(FeignJsonMapper jsonMapper, HttpObfuscator httpObfuscator, String errorPrefix, String moduleName, AsyncExchangeLogger exchangeLogger, LogSampling logSampling) {
+        this(jsonMapper, httpObfuscator, errorPrefix, moduleName, exchangeLogger, logSampling, ErrorBodyParsers.defaults(jsonMapper));
+    }
+
+    public ClientResponseErrorDecoder(FeignJsonMapper jsonMapper, HttpObfuscator httpObfuscator, String errorPrefix, String moduleName, AsyncExchangeLogger exchangeLogger, LogSampling logSampling, ErrorBodyParsers errorBodyParsers) {
         this.httpObfuscator = httpObfuscator;
         this.errorPrefix = errorPrefix;
         this.moduleName = moduleName;
+        this.exchangeLogger = exchangeLogger;
+        this.logSampling = logSampling;
+        this.errorBodyParsers = errorBodyParsers;
     }
 
     public ClientResponseErrorDecoder(FeignJsonMapper jsonMapper, String errorPrefix, String moduleName) {
-        this.jsonMapper = jsonMapper;
-        this.httpObfuscator = new NoneHttpObfuscator();
-        this.errorPrefix = errorPrefix;
-        this.moduleName = moduleName;
+        this(jsonMapper, new NoneHttpObfuscator(), errorPrefix, moduleName, null, LogSampling.always());
     }
 
     @Override
     public ClientResponseException decode(String methodKey, Response response) {
+        ResponseWrapper wrapper = null;
+        RequestWrapper requestWrapper = null;
         try {
-            ResponseWrapper wrapper = httpObfuscator.obfuscate(response);
-            log.error("{} Module - Error calling method {}. Request was [{}].\nResponse was [{}]", moduleName, methodKey, httpObfuscator.obfuscate(response.request()), wrapper);
-            ErrorResponse errorResponse;
-            if (isJson(response)) {
-                JsonNode node = jsonMapper.getMAPPER().readTree(wrapper.getOriginalCopy().body().asInputStream());
-                if(node.isArray()){
-                    node = node.get(0);
-                }
-                errorResponse = jsonMapper.getMAPPER().convertValue(node, ErrorResponse.class);
-            }else
+            Response toDecode = response;
+            if (log.isErrorEnabled() && logSampling.shouldLog(methodKey, response.status(), CallContext.elapsedNanos())) {
+                wrapper = httpObfuscator.obfuscate(response);
+                if (exchangeLogger == null)
+                    requestWrapper = httpObfuscator.obfuscate(response.request());
+                toDecode = wrapper.getOriginalCopy();
+            }
+            ErrorResponse errorResponse = toDecode.body() == null ? null
+                    : errorBodyParsers.parse(FeignBinaryDecoder.contentType(response.headers()), toDecode.body().asInputStream());
+            if (errorResponse == null)
                 errorResponse = ErrorResponse.builder().build();
             if (isNotCapturedClientMessage(errorResponse))
-                errorResponse = buildUnknownErrorMessage(response, errorResponse.metadata());
+                errorResponse = buildUnknownErrorMessage(response, errorResponse.getMessage(), errorResponse.metadata());
             return ClientResponseException.of(errorResponse, response.status());
         } catch (Exception e) {
             log.error("{} Module - Exception calling method {}. Exception was:", moduleName, methodKey, e);
-            return ClientResponseException.of(buildUnknownErrorMessage(response, Collections.emptyMap()), response.status());
+            return ClientResponseException.of(buildUnknownErrorMessage(response, null, Collections.emptyMap()), response.status());
+        } finally {
+            if (wrapper != null && exchangeLogger != null)
+                exchangeLogger.submit(Exchange.failure(log, httpObfuscator, moduleName, methodKey, wrapper.snapshot()));
+            else if (requestWrapper != null)
+                log.error("{} Module - Error calling method {}. Request was [{}].\nResponse was [{}]", moduleName, methodKey, requestWrapper, wrapper);
         }
     }
 
-    private boolean isJson(Response response) {
-        return response.headers().containsKey(HttpHeaders.CONTENT_TYPE)
-                && response.headers().get(HttpHeaders.CONTENT_TYPE).stream()
-        .anyMatch(s -> JSON_MEDIA.matcher(s).matches());
-    }
-
-    private ErrorResponse buildUnknownErrorMessage(Response response, Map<String, Object> metadata) {
+    private ErrorResponse buildUnknownErrorMessage(Response response, String message, Map<String, Object> metadata) {
         String code = String.join("-", errorPrefix, String.valueOf(response.status()));
-        String message = StringUtils.isEmpty(response.reason()) ?
-                String.format("Unmapped error message of connector on module %s", moduleName)
-                : response.reason();
+        if (StringUtils.isEmpty(message))
+            message = StringUtils.isEmpty(response.reason()) ?
+                    String.format("Unmapped error message of connector on module %s", moduleName)
+                    : response.reason();
         ErrorResponse errorResponse = ErrorResponse.of(code, message);
         if (metadata != null && !metadata.isEmpty())
             errorResponse.metadata(metadata);
@@ -87,6 +101,9 @@ public class ClientResponseErrorDecoder implements ErrorDecoder {
                 || errorResponse.getFields().isEmpty());
     }
 
+    /**
+     * Stackless, as it carries an error response rather than a failure of the connector.
+     */
     public static class ClientResponseException extends FeignException {
 
         public final ErrorResponse response;
@@ -103,5 +120,10 @@ public class ClientResponseErrorDecoder implements ErrorDecoder {
         static ClientResponseException of(ErrorResponse response, int httpStatusResponse) {
             return new ClientResponseException("Connector request fail", response, httpStatusResponse);
         }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
     }
 }
@@ -0,0 +1,190 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import br.org.abnerrolim.spring.feign.connector.utils.BufferPool;
+import br.org.abnerrolim.spring.feign.connector.utils.PooledByteArrayOutputStream;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Advertises gzip and deflate to the server and hands decoders and obfuscators responses already decompressed, as
+ * streams, without their Content-Encoding and Content-Length headers. Request bodies bigger than the threshold are
+ * sent gzipped, while responses keep the original request. The delegate must not decompress responses itself.
+ */
+public class CompressingClient implements Client {
+
+    static final String ACCEPTED_ENCODINGS = "gzip, deflate";
+    private static final String GZIP = "gzip";
+    private static final String DEFLATE = "deflate";
+
+    private final Client delegate;
+    private final int requestCompressionThreshold;
+    private final BufferPool bufferPool;
+
+    public CompressingClient(Client delegate) {
+        this(delegate, 0);
+    }
+
+    /**
+     * @param requestCompressionThreshold request bodies with more bytes than this are gzipped, zero or less never
+     *                                    compresses requests.
+     */
+    public CompressingClient(Client delegate, int requestCompressionThreshold) {
+        this(delegate, requestCompressionThreshold, BufferPool.shared());
+    }
+
+    public CompressingClient(Client delegate, int requestCompressionThreshold, BufferPool bufferPool) {
+        this.delegate = delegate;
+        this.requestCompressionThreshold = requestCompressionThreshold;
+        this.bufferPool = bufferPool;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        Request sent = compress(request);
+        Response response = delegate.execute(sent, options);
+        // decoders log the request of the response, which must not be the gzipped one
+        if (sent != request && response.request() == sent)
+            response = response.toBuilder().request(request).build();
+        String encoding = firstHeader(response.headers(), HttpHeaders.CONTENT_ENCODING);
+        if (response.body() == null || encoding == null)
+            return response;
+        encoding = encoding.trim().toLowerCase();
+        if (!GZIP.equals(encoding) && !"x-gzip".equals(encoding) && !DEFLATE.equals(encoding))
+            return response;
+        Map<String, Collection<String>> headers = new LinkedHashMap<>(response.headers());
+        headers.keySet().removeIf(name -> HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)
+                || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name));
+        return response.toBuilder()
+                .headers(headers)
+                .body(new DecompressingInputStream(response.body().asInputStream(), !DEFLATE.equals(encoding)), null)
+                .build();
+    }
+
+    private Request compress(Request request) throws IOException {
+        Map<String, Collection<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        headers.putAll(request.headers());
+        boolean compressBody = requestCompressionThreshold > 0 && request.body() != null
+                && request.body().length > requestCompressionThreshold
+                && !headers.containsKey(HttpHeaders.CONTENT_ENCODING);
+        if (headers.containsKey(HttpHeaders.ACCEPT_ENCODING) && !compressBody)
+            return request;
+        Map<String, Collection<String>> newHeaders = new LinkedHashMap<>(request.headers());
+        if (!headers.containsKey(HttpHeaders.ACCEPT_ENCODING))
+            newHeaders.put(HttpHeaders.ACCEPT_ENCODING, Collections.singletonList(ACCEPTED_ENCODINGS));
+        if (!compressBody)
+            return Request.create(request.httpMethod(), request.url(), newHeaders, request.body(), request.charset());
+        newHeaders.keySet().removeIf(HttpHeaders.CONTENT_LENGTH::equalsIgnoreCase);
+        newHeaders.put(HttpHeaders.CONTENT_ENCODING, Collections.singletonList(GZIP));
+        return Request.create(request.httpMethod(), request.url(), newHeaders, gzip(request.body()), null);
+    }
+
+    private byte[] gzip(byte[] body) throws IOException {
+        PooledByteArrayOutputStream out = new PooledByteArrayOutputStream(bufferPool, body.length / 2);
+        try {
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(body);
+            }
+            return out.toByteArray();
+        } finally {
+            out.release();
+        }
+    }
+
+    private static String firstHeader(Map<String, Collection<String>> headers, String name) {
+        for (Map.Entry<String, Collection<String>> header : headers.entrySet())
+            if (name.equalsIgnoreCase(header.getKey()) && header.getValue() != null && !header.getValue().isEmpty())
+                return header.getValue().iterator().next();
+        return null;
+    }
+
+    /**
+     * Picks the inflater on the first read, so empty bodies, like HEAD or 204 responses declaring an encoding, are
+     * not an error. Deflate accepts both the zlib wrapped stream of the spec and the raw one some servers send.
+     */
+    private static final class DecompressingInputStream extends InputStream {
+        private final InputStream compressed;
+        private final boolean gzip;
+        private InputStream delegate;
+        private Inflater inflater;
+
+        private DecompressingInputStream(InputStream compressed, boolean gzip) {
+            this.compressed = compressed;
+            this.gzip = gzip;
+        }
+
+        @Override
+        public int read() throws IOException {
+            InputStream in = delegate();
+            return in == null ? -1 : in.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            InputStream in = delegate();
+            return in == null ? -1 : in.read(b, off, len);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return delegate == null ? 0 : delegate.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (delegate != null)
+                    delegate.close();
+                else
+                    compressed.close();
+            } finally {
+                if (inflater != null)
+                    inflater.end();
+            }
+        }
+
+        private InputStream delegate() throws IOException {
+            if (delegate != null)
+                return delegate;
+            PushbackInputStream in = new PushbackInputStream(compressed, 2);
+            byte[] head = new byte[2];
+            int read = 0;
+            while (read < 2) {
+                int n = in.read(head, read, 2 - read);
+                if (n < 0)
+                    break;
+                read += n;
+            }
+            if (read == 0)
+                return null;
+            in.unread(head, 0, read);
+            if (gzip)
+                delegate = new GZIPInputStream(in);
+            else {
+                inflater = new Inflater(!(read == 2 && isZlibHeader(head)));
+                delegate = new InflaterInputStream(in, inflater);
+            }
+            return delegate;
+        }
+
+        private static boolean isZlibHeader(byte[] head) {
+            int cmf = head[0] & 0xFF;
+            int flg = head[1] & 0xFF;
+            return (cmf & 0x0F) == 8 && ((cmf << 8) | flg) % 31 == 0;
+        }
+    }
+}
@@ -28,15 +28,36 @@ public class DynamicTarget<T> implements Target<T> {
 
     @Override
     public Request apply(RequestTemplate input) {
-        URI asUri = URI.create(input.url());
-        String onlyPath = asUri.getPath();
-        String finalUrl = dynamicHostResolver.getHost() + onlyPath;
-        return alterUrl(input, finalUrl);
+        return alterUrl(input, rewriteUrl(dynamicHostResolver.getHost(), input.url(), input.queryLine()));
+    }
+
+    /**
+     * Replaces scheme and authority of {@code url}, if any, by {@code host}, keeping path and query as they are.
+     */
+    static String rewriteUrl(String host, String url, String queryLine) {
+        int pathStart = pathStart(url);
+        return new StringBuilder(host.length() + url.length() - pathStart + queryLine.length())
+                .append(host)
+                .append(url, pathStart, url.length())
+                .append(queryLine)
+                .toString();
+    }
+
+    private static int pathStart(String url) {
+        int schemeEnd = url.indexOf("://");
+        if (schemeEnd < 0)
+            return 0;
+        for (int i = schemeEnd + 3; i < url.length(); i++) {
+            char c = url.charAt(i);
+            if (c == '/' || c == '?' || c == '#')
+                return i;
+        }
+        return url.length();
     }
 
     private Request alterUrl(RequestTemplate request, String newUrl) {
         return Request.create(
-                request.method(),
+                Request.HttpMethod.valueOf(request.method()),
                 newUrl,
                 request.headers(),
                 request.body(),
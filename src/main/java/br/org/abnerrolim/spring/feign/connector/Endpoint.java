@@ -0,0 +1,139 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One host of a {@link LoadBalancer} with the state strategies select on. Kept while the host is resolved, so its
+ * state survives host list changes.
+ */
+public final class Endpoint {
+
+    private static final double LATENCY_WEIGHT = 0.2d;
+
+    private final String host;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong latencyNanos = new AtomicLong(-1);
+    private final AtomicInteger latencySamples = new AtomicInteger();
+    // 0 while the host is in rotation, else when its ejection ends; it keeps the value during the gradual return
+    private final AtomicLong ejectedUntilNanos = new AtomicLong();
+    private final AtomicInteger ejections = new AtomicInteger();
+    private volatile long inRotationSinceNanos;
+    final AtomicReference<PeakEwmaStrategy.Ewma> peakEwma = new AtomicReference<>();
+
+    Endpoint(String host) {
+        this.host = host;
+    }
+
+    public String host() {
+        return host;
+    }
+
+    /**
+     * @return calls sent to this host still waiting for their response.
+     */
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public long successes() {
+        return successes.sum();
+    }
+
+    /**
+     * @return calls ended by a connection error or a 5xx response.
+     */
+    public long failures() {
+        return failures.sum();
+    }
+
+    /**
+     * @return moving average of the time until the response, -1 before the first response or right after an ejection.
+     */
+    public long latencyNanos() {
+        return latencyNanos.get();
+    }
+
+    /**
+     * @return times this host was ejected in a row, lowered again while it stays in rotation.
+     */
+    public int ejections() {
+        return ejections.get();
+    }
+
+    void acquire() {
+        inFlight.incrementAndGet();
+    }
+
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    void record(boolean failed, long elapsedNanos) {
+        if (failed) {
+            failures.increment();
+            consecutiveFailures.incrementAndGet();
+        } else {
+            successes.increment();
+            consecutiveFailures.set(0);
+        }
+        long current;
+        long updated;
+        do {
+            current = latencyNanos.get();
+            updated = current < 0 ? elapsedNanos : (long) (current + LATENCY_WEIGHT * (elapsedNanos - current));
+        } while (!latencyNanos.compareAndSet(current, updated));
+        latencySamples.incrementAndGet();
+    }
+
+    int consecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    int latencySamples() {
+        return latencySamples.get();
+    }
+
+    long ejectedUntilNanos() {
+        return ejectedUntilNanos.get();
+    }
+
+    long inRotationSinceNanos() {
+        return inRotationSinceNanos;
+    }
+
+    /**
+     * @return false when another call ejected the host first.
+     */
+    boolean eject(long expectedEjectedUntil, long untilNanos) {
+        if (!ejectedUntilNanos.compareAndSet(expectedEjectedUntil, untilNanos))
+            return false;
+        ejections.incrementAndGet();
+        consecutiveFailures.set(0);
+        latencySamples.set(0);
+        latencyNanos.set(-1);
+        return true;
+    }
+
+    /**
+     * Ends the gradual return of the host ejected until {@code ejectedUntil}.
+     */
+    void backInRotation(long ejectedUntil, long nowNanos) {
+        if (ejectedUntilNanos.compareAndSet(ejectedUntil, 0))
+            inRotationSinceNanos = nowNanos;
+    }
+
+    void forgiveEjection() {
+        ejections.updateAndGet(count -> Math.max(0, count - 1));
+    }
+
+    @Override
+    public String toString() {
+        return host + " (" + inFlight.get() + " in flight)";
+    }
+}
@@ -0,0 +1,21 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Binds error bodies of a media type to {@link ErrorResponse}, registered on {@link ErrorBodyParsers}.
+ */
+@FunctionalInterface
+public interface ErrorBodyParser {
+
+    /**
+     * @param body      the error body, read once.
+     * @param mediaType the parsed Content-Type of the response, with its parameters (eg. charset).
+     * @return the bound error or null when the body has nothing to bind. Errors without code nor fields get the
+     * unmapped error code of the module.
+     */
+    ErrorResponse parse(InputStream body, MediaType mediaType) throws IOException;
+}
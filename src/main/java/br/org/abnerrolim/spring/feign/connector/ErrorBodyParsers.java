@@ -0,0 +1,144 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import br.org.abnerrolim.spring.feign.connector.utils.FeignJsonMapper;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Error body parsers by media type. Content-Type values are parsed and matched once, then their parser is served from
+ * a cache, so errors don't pay media type parsing. Exact types win over patterns like {@code application/*+json};
+ * otherwise parsers registered on the builder are tried before the defaults:
+ * <ul>
+ * <li>{@code application/json}, {@code application/*+json} and the {@link BinaryCodec} types, bound as json.</li>
+ * <li>{@code application/problem+json}, RFC 7807 problem details: type (or title) as code and detail (or title) as
+ * message.</li>
+ * <li>{@code application/xml}, {@code text/xml} and {@code application/*+xml}, bound from the root element children.</li>
+ * <li>{@code text/plain}, the text as message.</li>
+ * </ul>
+ */
+public final class ErrorBodyParsers {
+
+    private static final int MAX_CACHED_CONTENT_TYPES = 256;
+    private static final Resolved NONE = new Resolved(null, null);
+
+    private final List<Registration> registrations;
+    private final ConcurrentMap<String, Resolved> resolved = new ConcurrentHashMap<>();
+
+    private ErrorBodyParsers(List<Registration> registrations) {
+        this.registrations = registrations;
+    }
+
+    public static ErrorBodyParsers defaults(FeignJsonMapper jsonMapper) {
+        return builder(jsonMapper).build();
+    }
+
+    public static Builder builder(FeignJsonMapper jsonMapper) {
+        return new Builder(jsonMapper);
+    }
+
+    /**
+     * @return the bound error, or null when there is no parser for the content type or the body has nothing to bind.
+     */
+    public ErrorResponse parse(String contentType, InputStream body) throws IOException {
+        Resolved parser = resolve(contentType);
+        return parser.parser == null ? null : parser.parser.parse(body, parser.mediaType);
+    }
+
+    public boolean supports(String contentType) {
+        return resolve(contentType).parser != null;
+    }
+
+    private Resolved resolve(String contentType) {
+        if (contentType == null)
+            return NONE;
+        Resolved parser = resolved.get(contentType);
+        if (parser != null)
+            return parser;
+        parser = lookup(contentType);
+        // Content-Type values come from the servers, a bounded cache keeps unusual parameters from growing it forever
+        if (resolved.size() < MAX_CACHED_CONTENT_TYPES)
+            resolved.putIfAbsent(contentType, parser);
+        return parser;
+    }
+
+    private Resolved lookup(String contentType) {
+        MediaType mediaType;
+        try {
+            mediaType = MediaType.parseMediaType(contentType);
+        } catch (InvalidMediaTypeException e) {
+            return NONE;
+        }
+        for (Registration registration : registrations) {
+            if (registration.mediaType.getType().equals(mediaType.getType())
+                    && registration.mediaType.getSubtype().equals(mediaType.getSubtype()))
+                return new Resolved(mediaType, registration.parser);
+        }
+        for (Registration registration : registrations) {
+            if (registration.mediaType.includes(mediaType))
+                return new Resolved(mediaType, registration.parser);
+        }
+        return NONE;
+    }
+
+    public static final class Builder {
+        private final FeignJsonMapper jsonMapper;
+        private final List<Registration> registrations = new ArrayList<>();
+
+        private Builder(FeignJsonMapper jsonMapper) {
+            this.jsonMapper = jsonMapper;
+        }
+
+        /**
+         * @param mediaType a media type or pattern, like {@code application/vnd.partner.error} or {@code text/*}.
+         */
+        public Builder parser(String mediaType, ErrorBodyParser parser) {
+            registrations.add(new Registration(MediaType.parseMediaType(mediaType), parser));
+            return this;
+        }
+
+        public ErrorBodyParsers build() {
+            List<Registration> all = new ArrayList<>(registrations);
+            ErrorBodyParser json = new JsonErrorBodyParser(jsonMapper, () -> jsonMapper.getMAPPER().getFactory(), false);
+            ErrorBodyParser xml = new XmlErrorBodyParser();
+            all.add(new Registration(MediaType.APPLICATION_JSON, json));
+            all.add(new Registration(MediaType.APPLICATION_PROBLEM_JSON,
+                    new JsonErrorBodyParser(jsonMapper, () -> jsonMapper.getMAPPER().getFactory(), true)));
+            all.add(new Registration(MediaType.parseMediaType("application/*+json"), json));
+            for (BinaryCodec codec : BinaryCodec.values())
+                all.add(new Registration(MediaType.parseMediaType(codec.mediaType()), new JsonErrorBodyParser(jsonMapper, codec::factory, false)));
+            all.add(new Registration(MediaType.APPLICATION_XML, xml));
+            all.add(new Registration(MediaType.TEXT_XML, xml));
+            all.add(new Registration(MediaType.parseMediaType("application/*+xml"), xml));
+            all.add(new Registration(MediaType.TEXT_PLAIN, new TextErrorBodyParser()));
+            return new ErrorBodyParsers(Collections.unmodifiableList(all));
+        }
+    }
+
+    private static final class Registration {
+        private final MediaType mediaType;
+        private final ErrorBodyParser parser;
+
+        private Registration(MediaType mediaType, ErrorBodyParser parser) {
+            this.mediaType = mediaType;
+            this.parser = parser;
+        }
+    }
+
+    private static final class Resolved {
+        private final MediaType mediaType;
+        private final ErrorBodyParser parser;
+
+        private Resolved(MediaType mediaType, ErrorBodyParser parser) {
+            this.mediaType = mediaType;
+            this.parser = parser;
+        }
+    }
+}
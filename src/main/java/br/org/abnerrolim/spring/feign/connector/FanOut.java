@@ -0,0 +1,277 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import feign.FeignException;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * How {@link ClientResponse#all}, {@link ClientResponse#firstSuccess} and {@link ClientResponse#traverse} run their
+ * calls: on which executor, how many at a time and until when. Instances are immutable and can be shared.
+ * <p>
+ * Calls not started when the fan-out ends are skipped and running ones are interrupted, which stops waits and
+ * interruptible IO but not every blocking socket read; their threads are released when the call returns.
+ */
+public final class FanOut {
+
+    static final String TIMEOUT_CODE = "FAN-OUT-TIMEOUT";
+    static final String FAILURE_CODE = "FAN-OUT-FAILURE";
+    static final String ERRORS_METADATA = "errors";
+
+    private final Executor executor;
+    private final int parallelism;
+    private final Duration deadline;
+
+    private FanOut(Executor executor, int parallelism, Duration deadline) {
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Runs every call at once on {@code executor}, without deadline.
+     */
+    public static FanOut on(Executor executor) {
+        return new FanOut(Objects.requireNonNull(executor, "executor is null"), Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * @param parallelism max calls running at the same time.
+     */
+    public FanOut parallelism(int parallelism) {
+        if (parallelism <= 0)
+            throw new IllegalArgumentException("Parallelism must be positive");
+        return new FanOut(executor, parallelism, deadline);
+    }
+
+    /**
+     * @param deadline max time to wait for all the calls, counted from the fan-out start. Calls not finished by then
+     *                 are cancelled and reported with the {@value #TIMEOUT_CODE} code and 504 status.
+     */
+    public FanOut deadline(Duration deadline) {
+        return new FanOut(executor, parallelism, deadline);
+    }
+
+    <T> ClientResponse<List<T>> all(List<? extends Supplier<T>> calls) {
+        Run<T> run = new Run<>(calls, false);
+        run.await();
+        if (run.firstError < 0 && run.pending() == 0) {
+            List<T> values = new ArrayList<>(calls.size());
+            for (ClientResponse<T> result : run.results)
+                values.add(result.get());
+            return ClientResponse.successFull(values);
+        }
+        return run.aggregatedError(run.firstError >= 0 ? run.firstError : run.firstPending());
+    }
+
+    <T> ClientResponse<T> firstSuccess(List<? extends Supplier<T>> calls) {
+        if (calls.isEmpty())
+            throw new IllegalArgumentException("No calls to run");
+        Run<T> run = new Run<>(calls, true);
+        run.await();
+        if (run.firstSuccess >= 0)
+            return run.results[run.firstSuccess];
+        for (int i = 0; i < run.results.length; i++) {
+            if (run.results[i] == null || run.results[i].isError())
+                return run.aggregatedError(i);
+        }
+        throw new IllegalStateException("Fan-out finished without results");
+    }
+
+    <I, T> ClientResponse<List<T>> traverse(Collection<I> items, Function<? super I, ? extends T> call) {
+        List<Supplier<T>> calls = new ArrayList<>(items.size());
+        for (I item : items)
+            calls.add(() -> call.apply(item));
+        return all(calls);
+    }
+
+    /**
+     * One fan-out execution. Workers pull the next call index until the calls end or the run stops, so at most
+     * {@code parallelism} executor threads are taken whatever the number of calls.
+     */
+    private final class Run<T> {
+        private final List<? extends Supplier<T>> calls;
+        private final boolean stopOnSuccess;
+        private final ClientResponse<T>[] results;
+        private final Thread[] running;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger finished = new AtomicInteger();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private volatile boolean stopped;
+        private volatile int firstError = -1;
+        private volatile int firstSuccess = -1;
+
+        @SuppressWarnings("unchecked")
+        private Run(List<? extends Supplier<T>> calls, boolean stopOnSuccess) {
+            this.calls = calls;
+            this.stopOnSuccess = stopOnSuccess;
+            this.results = new ClientResponse[calls.size()];
+            this.running = new Thread[calls.size()];
+        }
+
+        private void await() {
+            if (calls.isEmpty())
+                return;
+            int workers = Math.min(parallelism, calls.size());
+            try {
+                for (int i = 0; i < workers; i++)
+                    executor.execute(this::work);
+                if (deadline == null)
+                    done.get();
+                else
+                    done.get(deadline.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                // results of the calls still running are the timeout error
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stop();
+                throw new IllegalStateException("Interrupted waiting the fan-out calls", e);
+            } catch (ExecutionException e) {
+                stop();
+                if (e.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) e.getCause();
+                if (e.getCause() instanceof Error)
+                    throw (Error) e.getCause();
+                throw new IllegalStateException(e.getCause());
+            } catch (RuntimeException e) {
+                stop();
+                throw e;
+            }
+            stop();
+        }
+
+        private void work() {
+            int index;
+            while (!stopped && (index = next.getAndIncrement()) < calls.size()) {
+                if (!start(index))
+                    return;
+                ClientResponse<T> result;
+                try {
+                    result = ClientResponse.of(calls.get(index));
+                } catch (RuntimeException e) {
+                    result = failure(e);
+                } catch (Throwable e) {
+                    end(index);
+                    done.completeExceptionally(e);
+                    return;
+                }
+                end(index);
+                complete(index, result);
+            }
+        }
+
+        private void complete(int index, ClientResponse<T> result) {
+            synchronized (this) {
+                if (stopped)
+                    return;
+                results[index] = result;
+                if (result.isError() && firstError < 0)
+                    firstError = index;
+                if (!result.isError() && firstSuccess < 0)
+                    firstSuccess = index;
+            }
+            if (finished.incrementAndGet() == calls.size()
+                    || (stopOnSuccess && !result.isError())
+                    || (!stopOnSuccess && result.isError()))
+                done.complete(null);
+        }
+
+        private boolean start(int index) {
+            synchronized (this) {
+                if (stopped)
+                    return false;
+                running[index] = Thread.currentThread();
+                return true;
+            }
+        }
+
+        private void end(int index) {
+            synchronized (this) {
+                running[index] = null;
+                // an interrupt meant for the cancelled call must not leak to the next executor task
+                if (stopped)
+                    Thread.interrupted();
+            }
+        }
+
+        /**
+         * Freezes the results: calls not started are skipped and running ones are interrupted.
+         */
+        private synchronized void stop() {
+            if (stopped)
+                return;
+            stopped = true;
+            for (Thread thread : running) {
+                if (thread != null)
+                    thread.interrupt();
+            }
+        }
+
+        private int pending() {
+            int pending = 0;
+            for (ClientResponse<T> result : results)
+                if (result == null)
+                    pending++;
+            return pending;
+        }
+
+        private int firstPending() {
+            for (int i = 0; i < results.length; i++)
+                if (results[i] == null)
+                    return i;
+            return -1;
+        }
+
+        /**
+         * Error of the call at {@code index}, keeping every error known, by call index, in the
+         * {@value #ERRORS_METADATA} metadata. Only calls that ran to the end or hit the deadline are reported.
+         */
+        private <R> ClientResponse<R> aggregatedError(int index) {
+            boolean timedOut = !done.isDone();
+            Map<Integer, ErrorResponse> errors = new LinkedHashMap<>();
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] != null && results[i].isError())
+                    errors.put(i, results[i].getError());
+                else if (results[i] == null && timedOut)
+                    errors.put(i, timeoutError());
+            }
+            ClientResponse<T> result = results[index];
+            ErrorResponse error = result != null ? result.getError() : timeoutError();
+            int status = result != null ? result.getHttpStatus().orElse(HttpStatus.INTERNAL_SERVER_ERROR.value())
+                    : HttpStatus.GATEWAY_TIMEOUT.value();
+            ErrorResponse aggregated = new ErrorResponse(error.getFields(), error.getCode(), error.getMessage());
+            aggregated.metadata(new LinkedHashMap<>(error.metadata()));
+            aggregated.metadata(ERRORS_METADATA, errors);
+            return ClientResponse.error(aggregated, status);
+        }
+
+        /**
+         * Error response of a call that failed without a decoded error, like a connection failure, so it is
+         * reported with the other calls errors instead of failing the fan-out.
+         */
+        private ClientResponse<T> failure(RuntimeException e) {
+            int status = e instanceof FeignException && ((FeignException) e).status() > 0 ? ((FeignException) e).status()
+                    : HttpStatus.INTERNAL_SERVER_ERROR.value();
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+            return ClientResponse.error(ErrorResponse.of(FAILURE_CODE, message), status);
+        }
+
+        private ErrorResponse timeoutError() {
+            return ErrorResponse.of(TIMEOUT_CODE, "Call not finished within the fan-out deadline of " + deadline);
+        }
+    }
+}
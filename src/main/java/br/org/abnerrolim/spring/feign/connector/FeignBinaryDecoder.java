@@ -0,0 +1,54 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import br.org.abnerrolim.spring.feign.connector.utils.FeignJsonMapper;
+import com.fasterxml.jackson.core.JsonParser;
+import feign.Response;
+import feign.Util;
+import feign.codec.Decoder;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Decodes bodies of the configured {@link BinaryCodec} media type and falls back to json for any other answer, so
+ * servers that don't support the binary format keep working.
+ */
+public class FeignBinaryDecoder implements Decoder {
+
+    private final FeignJsonMapper jsonMapper;
+    private final BinaryCodec codec;
+    private final FeignJsonDecoder jsonDecoder;
+
+    public FeignBinaryDecoder(FeignJsonMapper jsonMapper, BinaryCodec codec) {
+        this.jsonMapper = jsonMapper;
+        this.codec = codec;
+        this.jsonDecoder = new FeignJsonDecoder(jsonMapper);
+    }
+
+    @Override
+    public Object decode(Response response, Type type) throws IOException {
+        if (response.status() == 404)
+            return JsonArrayIterator.isLazy(type) ? JsonArrayIterator.empty(type) : Util.emptyValueOf(type);
+        if (response.body() == null || codec != BinaryCodec.of(contentType(response.headers())))
+            return jsonDecoder.decode(response, type);
+        if (JsonArrayIterator.isLazy(type))
+            return JsonArrayIterator.of(codec.factory().createParser(response.body().asInputStream()),
+                    jsonMapper.readerFor(ReturnTypes.typeArgument(type)), type);
+        try (JsonParser parser = codec.factory().createParser(response.body().asInputStream())) {
+            if (parser.nextToken() == null)
+                return null;
+            return jsonMapper.readerFor(type).readValue(parser);
+        }
+    }
+
+    static String contentType(Map<String, Collection<String>> headers) {
+        for (Map.Entry<String, Collection<String>> header : headers.entrySet()) {
+            if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(header.getKey()) && header.getValue() != null && !header.getValue().isEmpty())
+                return header.getValue().iterator().next();
+        }
+        return null;
+    }
+}
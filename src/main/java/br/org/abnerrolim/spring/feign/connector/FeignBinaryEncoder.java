@@ -0,0 +1,47 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import br.org.abnerrolim.spring.feign.connector.utils.FeignJsonMapper;
+import com.fasterxml.jackson.core.JsonGenerator;
+import feign.RequestTemplate;
+import feign.codec.EncodeException;
+import feign.codec.Encoder;
+import org.springframework.http.HttpHeaders;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+
+/**
+ * Encodes every request body with the configured {@link BinaryCodec}, replacing any declared Content-Type by the codec
+ * one, so the called service must accept the codec.
+ */
+public class FeignBinaryEncoder implements Encoder {
+
+    private final FeignJsonMapper jsonMapper;
+    private final BinaryCodec codec;
+
+    public FeignBinaryEncoder(FeignJsonMapper jsonMapper, BinaryCodec codec) {
+        this.jsonMapper = jsonMapper;
+        this.codec = codec;
+    }
+
+    @Override
+    public void encode(Object object, Type bodyType, RequestTemplate template) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = codec.factory().createGenerator(out)) {
+            jsonMapper.writerFor(bodyType).writeValue(generator, object);
+        } catch (Exception e) {
+            throw new EncodeException(e.getMessage(), e);
+        }
+        removeHeader(template, HttpHeaders.CONTENT_TYPE);
+        template.header(HttpHeaders.CONTENT_TYPE, codec.mediaType());
+        template.body(out.toByteArray(), null);
+    }
+
+    private static void removeHeader(RequestTemplate template, String name) {
+        for (String header : new ArrayList<>(template.headers().keySet())) {
+            if (name.equalsIgnoreCase(header))
+                template.header(header, (String) null);
+        }
+    }
+}
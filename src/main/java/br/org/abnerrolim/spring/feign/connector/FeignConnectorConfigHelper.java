@@ -1,26 +1,40 @@
 package br.org.abnerrolim.spring.feign.connector;
 
+import br.org.abnerrolim.spring.feign.connector.logging.AsyncExchangeLogger;
+import br.org.abnerrolim.spring.feign.connector.logging.LogSampling;
+import br.org.abnerrolim.spring.feign.connector.logging.OverflowPolicy;
 import br.org.abnerrolim.spring.feign.connector.obfuscate.HttpObfuscator;
+import br.org.abnerrolim.spring.feign.connector.obfuscate.NoneHttpObfuscator;
 import br.org.abnerrolim.spring.feign.connector.utils.FeignJsonMapper;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.Client;
 import feign.Feign;
+import feign.InvocationHandlerFactory;
 import feign.Request;
 import feign.RequestInterceptor;
+import feign.codec.Decoder;
 import feign.httpclient.ApacheHttpClient;
-import feign.jackson.JacksonDecoder;
-import feign.jackson.JacksonEncoder;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.openfeign.support.SpringMvcContract;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
 @Component
-public class FeignConnectorConfigHelper {
+public class FeignConnectorConfigHelper implements DisposableBean {
 
     private Integer connectTimeout;
     private Integer readTimeout;
     private String moduleName;
     private String errorPrefix;
+    private final Map<String, AsyncExchangeLogger> exchangeLoggers = new ConcurrentHashMap<>();
 
     public FeignConnectorConfigHelper(@Value("${feign.connect.timeout}") Integer connectTimeout,
                                       @Value("${feign.read.timeout}") Integer readTimeout,
@@ -43,6 +57,13 @@ public class FeignConnectorConfigHelper {
     public class Config{
         private Feign.Builder feignBuilder;
         private FeignJsonMapper feignJsonMapper;
+        private HttpObfuscator httpObfuscator = new NoneHttpObfuscator();
+        private AsyncExchangeLogger exchangeLogger;
+        private LogSampling logSampling = LogSampling.always();
+        private int streamingLogSize;
+        private Decoder decoder;
+        private Client client;
+        private ErrorBodyParsers.Builder errorBodyParsers;
 
         private Config(){
             this.feignJsonMapper = new FeignJsonMapper();
@@ -53,18 +74,110 @@ public class FeignConnectorConfigHelper {
             minimal();
         }
         private void minimal(){
+            decoder = new FeignJsonDecoder(feignJsonMapper);
+            client = new ApacheHttpClient();
+            errorBodyParsers = ErrorBodyParsers.builder(feignJsonMapper);
             feignBuilder = Feign.builder()
-                    .encoder(new JacksonEncoder(feignJsonMapper.getMAPPER()))
-                    .decoder(new ClientResponseDecoder(new JacksonDecoder(feignJsonMapper.getMAPPER()),moduleName))
+                    .encoder(new FeignJsonEncoder(feignJsonMapper))
+                    .decoder(new ClientResponseDecoder(decoder, moduleName))
                     .errorDecoder(new ClientResponseErrorDecoder(feignJsonMapper, errorPrefix, moduleName))
-                    .client(new ApacheHttpClient())
+                    .client(client)
+                    .invocationHandlerFactory(CallContext.factory(new InvocationHandlerFactory.Default()))
+                    // ClientResponseDecoder closes bodies itself, except the ones lazy results still read
+                    .doNotCloseAfterDecode()
                     .options(requestOptions());
         }
 
+        private void decoders(){
+            feignBuilder
+                    .decoder(new ClientResponseDecoder(decoder, httpObfuscator, moduleName, exchangeLogger, logSampling, streamingLogSize))
+                    .errorDecoder(new ClientResponseErrorDecoder(feignJsonMapper, httpObfuscator, errorPrefix, moduleName, exchangeLogger, logSampling, errorBodyParsers.build()));
+        }
+
         public Config withObfuscator(HttpObfuscator httpObfuscator){
+            this.httpObfuscator = httpObfuscator;
+            decoders();
+            return this;
+        }
+
+        /**
+         * Clients with the same settings share one worker thread, stopped when this helper is destroyed.
+         */
+        public Config withAsyncLogging(int bufferSize, OverflowPolicy overflowPolicy){
+            return withAsyncLogging(exchangeLoggers.computeIfAbsent(bufferSize + "-" + overflowPolicy,
+                    key -> new AsyncExchangeLogger(moduleName + "-feign-connector-log", bufferSize, overflowPolicy)));
+        }
+
+        public Config withAsyncLogging(AsyncExchangeLogger exchangeLogger){
+            this.exchangeLogger = exchangeLogger;
+            decoders();
+            return this;
+        }
+
+        public Config withLogSampling(LogSampling logSampling){
+            this.logSampling = logSampling;
+            decoders();
+            return this;
+        }
+
+        /**
+         * The obfuscator only sees the first {@code maxLoggedBodySize} bytes of success bodies.
+         */
+        public Config withStreamingDecode(int maxLoggedBodySize){
+            if (maxLoggedBodySize <= 0)
+                throw new IllegalArgumentException("Max logged body size must be positive");
+            this.streamingLogSize = maxLoggedBodySize;
+            decoders();
+            return this;
+        }
+
+        /**
+         * Request bodies are always sent in {@code codec}. Responses in json are still decoded, for servers not
+         * supporting {@code codec}.
+         */
+        public Config withBinaryCodec(BinaryCodec codec){
+            String accept = codec.mediaType() + ", " + MediaType.APPLICATION_JSON_VALUE + ";q=0.9";
+            decoder = new FeignBinaryDecoder(feignJsonMapper, codec);
             feignBuilder
-                    .decoder(new ClientResponseDecoder(new JacksonDecoder(feignJsonMapper.getMAPPER()), httpObfuscator, moduleName))
-                    .errorDecoder(new ClientResponseErrorDecoder(feignJsonMapper, httpObfuscator, errorPrefix, moduleName));
+                    .encoder(new FeignBinaryEncoder(feignJsonMapper, codec))
+                    .requestInterceptor(template -> template.header(HttpHeaders.ACCEPT, accept));
+            decoders();
+            return this;
+        }
+
+        public Config withCompression(){
+            return withCompression(0);
+        }
+
+        /**
+         * Request bodies bigger than {@code requestCompressionThreshold} bytes are sent gzipped.
+         */
+        public Config withCompression(int requestCompressionThreshold){
+            // Apache's default client decompresses responses itself, leaving nothing to CompressingClient
+            if (client instanceof ApacheHttpClient)
+                client = new ApacheHttpClient(HttpClientBuilder.create().disableContentCompression().build());
+            client = new CompressingClient(client, requestCompressionThreshold);
+            feignBuilder
+                    .client(client);
+            return this;
+        }
+
+        /**
+         * {@code mediaType} may be a pattern like {@code application/vnd.partner.*}.
+         */
+        public Config withErrorBodyParser(String mediaType, ErrorBodyParser parser){
+            errorBodyParsers.parser(mediaType, parser);
+            decoders();
+            return this;
+        }
+
+        /**
+         * Without an executor, {@code CompletableFuture} methods run on a shared bounded connector pool and reactive
+         * ones on reactor's elastic scheduler.
+         */
+        public Config withAsyncExecutor(Executor executor){
+            feignBuilder
+                    .invocationHandlerFactory(CallContext.factory(new InvocationHandlerFactory.Default(), executor));
             return this;
         }
 
@@ -88,6 +201,17 @@ public class FeignConnectorConfigHelper {
         public <T> T buildDynamicHostClient(Class<T> clazz, DynamicHostResolver dynamicHostResolver){
             return this.feignBuilder.target(DynamicTarget.create(clazz, "http://localhost", dynamicHostResolver));
         }
+
+        public <T> T buildLoadBalancedClient(Class<T> clazz, LoadBalancer loadBalancer){
+            // built clients keep their own http client, so the builder gets the configured one back for the next ones
+            try {
+                return this.feignBuilder
+                        .client(loadBalancer.client(client))
+                        .target(DynamicTarget.create(clazz, "http://localhost", loadBalancer::getHost));
+            } finally {
+                this.feignBuilder.client(client);
+            }
+        }
     }
 
     @Bean
@@ -95,4 +219,10 @@ public class FeignConnectorConfigHelper {
         return new Request.Options(connectTimeout, readTimeout);
     }
 
+    @Override
+    public void destroy() {
+        for (AsyncExchangeLogger exchangeLogger : exchangeLoggers.values())
+            exchangeLogger.close();
+    }
+
 }
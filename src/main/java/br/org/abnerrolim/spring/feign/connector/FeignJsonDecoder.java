@@ -0,0 +1,43 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import br.org.abnerrolim.spring.feign.connector.utils.FeignJsonMapper;
+import feign.Response;
+import feign.Util;
+import feign.codec.Decoder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Json decoder reading bytes straight from the response body with the {@link FeignJsonMapper} reader cached for the
+ * return type, instead of resolving the type on every response. {@code Stream<T>} and {@code Iterator<T>} return
+ * types bind array elements lazily, see {@link JsonArrayIterator}.
+ */
+public class FeignJsonDecoder implements Decoder {
+
+    private final FeignJsonMapper jsonMapper;
+
+    public FeignJsonDecoder(FeignJsonMapper jsonMapper) {
+        this.jsonMapper = jsonMapper;
+    }
+
+    @Override
+    public Object decode(Response response, Type type) throws IOException {
+        boolean lazy = JsonArrayIterator.isLazy(type);
+        if (response.status() == 404)
+            return lazy ? JsonArrayIterator.empty(type) : Util.emptyValueOf(type);
+        if (response.body() == null)
+            return lazy ? JsonArrayIterator.empty(type) : null;
+        if (lazy)
+            return JsonArrayIterator.of(jsonMapper.getMAPPER().getFactory().createParser(response.body().asInputStream()),
+                    jsonMapper.readerFor(ReturnTypes.typeArgument(type)), type);
+        PushbackInputStream body = new PushbackInputStream(response.body().asInputStream(), 1);
+        int first = body.read();
+        if (first == -1)
+            return null;
+        body.unread(first);
+        return jsonMapper.readerFor(type).readValue((InputStream) body);
+    }
+}
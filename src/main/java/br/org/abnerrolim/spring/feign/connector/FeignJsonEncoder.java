@@ -0,0 +1,30 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import br.org.abnerrolim.spring.feign.connector.utils.FeignJsonMapper;
+import feign.RequestTemplate;
+import feign.codec.EncodeException;
+import feign.codec.Encoder;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Json encoder writing UTF-8 bytes with the {@link FeignJsonMapper} writer cached for the body type.
+ */
+public class FeignJsonEncoder implements Encoder {
+
+    private final FeignJsonMapper jsonMapper;
+
+    public FeignJsonEncoder(FeignJsonMapper jsonMapper) {
+        this.jsonMapper = jsonMapper;
+    }
+
+    @Override
+    public void encode(Object object, Type bodyType, RequestTemplate template) {
+        try {
+            template.body(jsonMapper.writerFor(bodyType).writeValueAsBytes(object), StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            throw new EncodeException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import feign.codec.DecodeException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Binds the elements of a json array one at a time, as they are consumed, so {@code Stream<T>} and {@code Iterator<T>}
+ * return types never hold the whole array. The response body is closed when the array ends, on {@link #close()} or
+ * when the stream returned for it is closed.
+ */
+final class JsonArrayIterator<T> implements Iterator<T>, Closeable {
+
+    private final JsonParser parser;
+    private final ObjectReader elementReader;
+    private JsonToken next;
+    private boolean closed;
+
+    private JsonArrayIterator(JsonParser parser, ObjectReader elementReader) {
+        this.parser = parser;
+        this.elementReader = elementReader;
+    }
+
+    static boolean isLazy(Type type) {
+        Class<?> raw = ReturnTypes.rawType(type);
+        // Flux methods get the iterator, CallContext turns it into the Flux
+        return raw == Stream.class || raw == Iterator.class || ReturnTypes.isFlux(type);
+    }
+
+    static Object empty(Type type) {
+        return ReturnTypes.rawType(type) == Stream.class ? Stream.empty() : Collections.emptyIterator();
+    }
+
+    /**
+     * @param parser        parser over the response body, not yet advanced.
+     * @param elementReader reader bound to the element type.
+     * @param type          the {@code Stream<T>} or {@code Iterator<T>} return type.
+     */
+    static Object of(JsonParser parser, ObjectReader elementReader, Type type) throws IOException {
+        JsonToken first;
+        try {
+            first = parser.nextToken();
+        } catch (IOException e) {
+            parser.close();
+            throw e;
+        }
+        if (first == null) {
+            parser.close();
+            return empty(type);
+        }
+        if (first != JsonToken.START_ARRAY) {
+            parser.close();
+            throw new DecodeException("Expected a json array to decode " + type.getTypeName() + " but found " + first);
+        }
+        JsonArrayIterator<Object> iterator = new JsonArrayIterator<>(parser, elementReader);
+        if (ReturnTypes.rawType(type) != Stream.class)
+            return iterator;
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(() -> {
+                    try {
+                        iterator.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed)
+            return false;
+        try {
+            if (next == null)
+                next = parser.nextToken();
+            if (next == null || next == JsonToken.END_ARRAY) {
+                close();
+                return false;
+            }
+            return true;
+        } catch (IOException e) {
+            closeQuietly();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        next = null;
+        try {
+            return elementReader.readValue(parser);
+        } catch (IOException e) {
+            closeQuietly();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+        closed = true;
+        parser.close();
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import br.org.abnerrolim.spring.feign.connector.utils.FeignJsonMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Supplier;
+
+/**
+ * Binds the error straight from the body in a single pass, unknown fields landing in the metadata as they are read.
+ * Array bodies bind their first element and the rest is never parsed.
+ */
+final class JsonErrorBodyParser implements ErrorBodyParser {
+
+    private static final String BLANK_PROBLEM_TYPE = "about:blank";
+
+    private final FeignJsonMapper jsonMapper;
+    private final Supplier<JsonFactory> factory;
+    private final boolean problemDetails;
+
+    JsonErrorBodyParser(FeignJsonMapper jsonMapper, Supplier<JsonFactory> factory, boolean problemDetails) {
+        this.jsonMapper = jsonMapper;
+        this.factory = factory;
+        this.problemDetails = problemDetails;
+    }
+
+    @Override
+    public ErrorResponse parse(InputStream body, MediaType mediaType) throws IOException {
+        try (JsonParser parser = factory.get().createParser(body)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY)
+                token = parser.nextToken();
+            if (token != JsonToken.START_OBJECT)
+                return null;
+            ErrorResponse error = jsonMapper.readerFor(ErrorResponse.class).readValue(parser);
+            return problemDetails ? fromProblem(error) : error;
+        }
+    }
+
+    /**
+     * RFC 7807 members stay in the metadata; the problem type, or its title, becomes the code and the detail, or the
+     * title, the message.
+     */
+    private static ErrorResponse fromProblem(ErrorResponse problem) {
+        if (problem.getCode() != null)
+            return problem;
+        String type = string(problem.metadata("type"));
+        String title = string(problem.metadata("title"));
+        String detail = string(problem.metadata("detail"));
+        String code = type != null && !BLANK_PROBLEM_TYPE.equals(type) ? type : title;
+        String message = detail != null ? detail : title != null ? title : problem.getMessage();
+        ErrorResponse error = new ErrorResponse(problem.getFields(), code, message);
+        error.metadata(problem.metadata());
+        return error;
+    }
+
+    private static String string(Object value) {
+        return value == null ? null : value.toString();
+    }
+}
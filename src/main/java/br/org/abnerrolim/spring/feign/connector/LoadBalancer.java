@@ -0,0 +1,175 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import feign.Client;
+import feign.Response;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Spreads the calls of a client over the hosts of a {@link MultiHostResolver}, picking one per call with a
+ * {@link SelectionStrategy}.
+ * <p>
+ * Clients are built with {@link FeignConnectorConfigHelper.Config#buildLoadBalancedClient(Class, LoadBalancer)}: its
+ * target picks the host of each call and its http client counts the call in flight on that host until the response
+ * arrives, then records its outcome: connection errors and 5xx responses are failures, the other responses
+ * successes. Both run on the calling thread, which carries the picked endpoint from one to the other, so they are
+ * not exposed on their own. Hosts and their state are kept in an
+ * immutable snapshot replaced by compare and set when the resolved hosts change, so selection never locks.
+ * <p>
+ * With an {@link OutlierDetection}, hosts failing or too slow are left out of the selection for a while.
+ */
+public final class LoadBalancer {
+
+    private final MultiHostResolver resolver;
+    private final SelectionStrategy strategy;
+    private final OutlierDetection outlierDetection;
+    private final LongSupplier nanoClock;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(Collections.emptyList(), Collections.emptyList()));
+    private final ThreadLocal<Endpoint> selected = new ThreadLocal<>();
+
+    private LoadBalancer(Builder builder, SelectionStrategy strategy) {
+        this.resolver = builder.resolver;
+        this.strategy = strategy;
+        this.outlierDetection = builder.outlierDetection;
+        this.nanoClock = builder.nanoClock;
+    }
+
+    public static Builder builder(MultiHostResolver resolver) {
+        return new Builder(resolver);
+    }
+
+    /**
+     * Picks the host of the current call, counting it in flight until the {@link #client(Client)} executes it.
+     */
+    String getHost() {
+        List<Endpoint> endpoints = endpoints();
+        Endpoint endpoint = strategy.select(outlierDetection == null ? endpoints : outlierDetection.available(endpoints, nanoClock.getAsLong()));
+        endpoint.acquire();
+        // a host picked but never executed (eg. the call failed before) must not stay in flight
+        Endpoint previous = selected.get();
+        if (previous != null)
+            previous.release();
+        selected.set(endpoint);
+        return endpoint.host();
+    }
+
+    /**
+     * @return {@code delegate} releasing the endpoint picked for each call and recording its outcome once its
+     * response arrives.
+     */
+    Client client(Client delegate) {
+        Objects.requireNonNull(delegate, "delegate is null");
+        return (request, options) -> {
+            Endpoint endpoint = selected.get();
+            if (endpoint == null)
+                return delegate.execute(request, options);
+            selected.remove();
+            long start = nanoClock.getAsLong();
+            boolean failed = true;
+            try {
+                Response response = delegate.execute(request, options);
+                failed = response.status() >= 500;
+                return response;
+            } finally {
+                endpoint.release();
+                record(endpoint, failed, start);
+            }
+        };
+    }
+
+    private void record(Endpoint endpoint, boolean failed, long start) {
+        long now = nanoClock.getAsLong();
+        if (outlierDetection == null)
+            endpoint.record(failed, now - start);
+        else
+            outlierDetection.record(endpoint, failed, now - start, now);
+        strategy.record(endpoint, failed, now - start);
+    }
+
+    /**
+     * @return the endpoints of the hosts resolved now.
+     */
+    public List<Endpoint> endpoints() {
+        List<String> hosts = resolver.getHosts();
+        if (hosts == null || hosts.isEmpty())
+            throw new IllegalStateException("Host resolver returned no hosts");
+        Snapshot current = snapshot.get();
+        while (hosts != current.hosts && !hosts.equals(current.hosts)) {
+            Snapshot updated = current.update(hosts);
+            if (snapshot.compareAndSet(current, updated))
+                return updated.endpoints;
+            current = snapshot.get();
+        }
+        return current.endpoints;
+    }
+
+    private static final class Snapshot {
+        private final List<String> hosts;
+        private final List<Endpoint> endpoints;
+
+        private Snapshot(List<String> hosts, List<Endpoint> endpoints) {
+            this.hosts = hosts;
+            this.endpoints = endpoints;
+        }
+
+        /**
+         * Keeps the endpoints of hosts still resolved, so their state is not lost.
+         */
+        private Snapshot update(List<String> hosts) {
+            Map<String, Endpoint> known = new HashMap<>();
+            for (Endpoint endpoint : endpoints)
+                known.put(endpoint.host(), endpoint);
+            List<Endpoint> updated = new ArrayList<>(hosts.size());
+            for (String host : hosts) {
+                if (host == null || host.isEmpty())
+                    throw new IllegalStateException("Host resolver returned an empty host");
+                Endpoint endpoint = known.remove(host);
+                updated.add(endpoint != null ? endpoint : new Endpoint(host));
+            }
+            return new Snapshot(hosts, Collections.unmodifiableList(updated));
+        }
+    }
+
+    public static class Builder {
+        private final MultiHostResolver resolver;
+        private SelectionStrategy strategy;
+        private OutlierDetection outlierDetection;
+        private LongSupplier nanoClock = System::nanoTime;
+
+        private Builder(MultiHostResolver resolver) {
+            this.resolver = Objects.requireNonNull(resolver, "resolver is null");
+        }
+
+        /**
+         * Defaults to {@link SelectionStrategy#powerOfTwoChoices()}.
+         */
+        public Builder strategy(SelectionStrategy strategy) {
+            this.strategy = Objects.requireNonNull(strategy, "strategy is null");
+            return this;
+        }
+
+        /**
+         * Ejects failing or slow hosts. Without it hosts are always selected.
+         */
+        public Builder outlierDetection(OutlierDetection outlierDetection) {
+            this.outlierDetection = Objects.requireNonNull(outlierDetection, "outlierDetection is null");
+            return this;
+        }
+
+        Builder nanoClock(LongSupplier nanoClock) {
+            this.nanoClock = nanoClock;
+            return this;
+        }
+
+        public LoadBalancer build() {
+            return new LoadBalancer(this, strategy != null ? strategy : SelectionStrategy.powerOfTwoChoices());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import java.util.List;
+
+/**
+ * Resolves every host able to serve a client, like {@link DynamicHostResolver} does for a single one. Returned lists
+ * must not change afterwards; returning the same instance while hosts don't change spares {@link LoadBalancer} from
+ * comparing them on each call.
+ */
+@FunctionalInterface
+public interface MultiHostResolver {
+    List<String> getHosts();
+}
@@ -0,0 +1,162 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Takes out of a {@link LoadBalancer} rotation the hosts failing or too slow, judged by the calls sent to them.
+ * <p>
+ * A host is ejected after {@code consecutiveFailures} connection errors or 5xx responses in a row, or when the moving
+ * average of its response time goes over {@code latencyThreshold}. The n-th ejection in a row lasts
+ * {@code baseEjectionTime * 2^(n-1)}, up to {@code maxEjectionTime}. Afterwards the host gets a growing share of the
+ * calls during {@code returnWindow}, from a tenth up to all of them. Each {@code maxEjectionTime} in rotation forgives
+ * one ejection. When every host is ejected, calls go to all of them.
+ */
+public final class OutlierDetection {
+
+    private static final int MIN_LATENCY_SAMPLES = 5;
+    private static final double MIN_RETURN_SHARE = 0.1d;
+
+    private final int consecutiveFailures;
+    private final long latencyThresholdNanos;
+    private final long baseEjectionNanos;
+    private final long maxEjectionNanos;
+    private final long returnWindowNanos;
+
+    private OutlierDetection(Builder builder) {
+        this.consecutiveFailures = builder.consecutiveFailures;
+        this.latencyThresholdNanos = builder.latencyThreshold == null ? -1 : builder.latencyThreshold.toNanos();
+        this.baseEjectionNanos = builder.baseEjectionTime.toNanos();
+        this.maxEjectionNanos = builder.maxEjectionTime.toNanos();
+        this.returnWindowNanos = builder.returnWindow.toNanos();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    void record(Endpoint endpoint, boolean failed, long elapsedNanos, long nowNanos) {
+        endpoint.record(failed, elapsedNanos);
+        long ejectedUntil = endpoint.ejectedUntilNanos();
+        if (nowNanos < ejectedUntil)
+            return;
+        boolean failing = failed && endpoint.consecutiveFailures() >= consecutiveFailures;
+        boolean slow = latencyThresholdNanos >= 0 && endpoint.latencySamples() >= MIN_LATENCY_SAMPLES
+                && endpoint.latencyNanos() > latencyThresholdNanos;
+        if (failing || slow)
+            eject(endpoint, ejectedUntil, nowNanos);
+    }
+
+    private void eject(Endpoint endpoint, long ejectedUntil, long nowNanos) {
+        if (ejectedUntil == 0 && nowNanos - endpoint.inRotationSinceNanos() >= maxEjectionNanos)
+            endpoint.forgiveEjection();
+        int shift = Math.min(endpoint.ejections(), 30);
+        long ejection = baseEjectionNanos > (maxEjectionNanos >> shift) ? maxEjectionNanos : Math.min(maxEjectionNanos, baseEjectionNanos << shift);
+        endpoint.eject(ejectedUntil, nowNanos + ejection);
+    }
+
+    /**
+     * @return {@code endpoints} itself when all of them are in rotation, otherwise the ones taking calls now.
+     */
+    List<Endpoint> available(List<Endpoint> endpoints, long nowNanos) {
+        List<Endpoint> available = null;
+        for (int i = 0; i < endpoints.size(); i++) {
+            Endpoint endpoint = endpoints.get(i);
+            boolean taking = takesCall(endpoint, nowNanos);
+            if (!taking && available == null) {
+                available = new ArrayList<>(endpoints.size());
+                available.addAll(endpoints.subList(0, i));
+            } else if (taking && available != null) {
+                available.add(endpoint);
+            }
+        }
+        if (available == null)
+            return endpoints;
+        return available.isEmpty() ? endpoints : available;
+    }
+
+    private boolean takesCall(Endpoint endpoint, long nowNanos) {
+        long ejectedUntil = endpoint.ejectedUntilNanos();
+        if (ejectedUntil == 0)
+            return true;
+        if (nowNanos < ejectedUntil)
+            return false;
+        long returning = nowNanos - ejectedUntil;
+        if (returning >= returnWindowNanos) {
+            endpoint.backInRotation(ejectedUntil, nowNanos);
+            return true;
+        }
+        double share = MIN_RETURN_SHARE + (1d - MIN_RETURN_SHARE) * returning / returnWindowNanos;
+        return ThreadLocalRandom.current().nextDouble() < share;
+    }
+
+    public static class Builder {
+        private int consecutiveFailures = 5;
+        private Duration latencyThreshold;
+        private Duration baseEjectionTime = Duration.ofSeconds(30);
+        private Duration maxEjectionTime = Duration.ofMinutes(5);
+        private Duration returnWindow = Duration.ofSeconds(30);
+
+        private Builder() {
+        }
+
+        /**
+         * Connection errors or 5xx responses in a row that eject a host. Defaults to 5.
+         */
+        public Builder consecutiveFailures(int consecutiveFailures) {
+            if (consecutiveFailures <= 0)
+                throw new IllegalArgumentException("Consecutive failures must be positive");
+            this.consecutiveFailures = consecutiveFailures;
+            return this;
+        }
+
+        /**
+         * Average response time that ejects a host. Disabled by default.
+         */
+        public Builder latencyThreshold(Duration latencyThreshold) {
+            this.latencyThreshold = checkPositive(latencyThreshold, "Latency threshold");
+            return this;
+        }
+
+        /**
+         * Duration of the first ejection, doubled on each following one. Defaults to 30 seconds.
+         */
+        public Builder baseEjectionTime(Duration baseEjectionTime) {
+            this.baseEjectionTime = checkPositive(baseEjectionTime, "Base ejection time");
+            return this;
+        }
+
+        /**
+         * Defaults to 5 minutes.
+         */
+        public Builder maxEjectionTime(Duration maxEjectionTime) {
+            this.maxEjectionTime = checkPositive(maxEjectionTime, "Max ejection time");
+            return this;
+        }
+
+        /**
+         * Time a host back from ejection takes to get its full share of calls. Defaults to 30 seconds, zero returns it
+         * at once.
+         */
+        public Builder returnWindow(Duration returnWindow) {
+            if (returnWindow.isNegative())
+                throw new IllegalArgumentException("Return window must not be negative");
+            this.returnWindow = returnWindow;
+            return this;
+        }
+
+        public OutlierDetection build() {
+            if (baseEjectionTime.compareTo(maxEjectionTime) > 0)
+                throw new IllegalArgumentException("Base ejection time must not be longer than max ejection time");
+            return new OutlierDetection(this);
+        }
+
+        private static Duration checkPositive(Duration duration, String name) {
+            if (duration.isNegative() || duration.isZero())
+                throw new IllegalArgumentException(name + " must be positive");
+            return duration;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * Picks the endpoint with the lowest expected cost: its peak EWMA response time times its calls in flight plus one.
+ * <p>
+ * The average decays with the time since the last response, weighting samples by {@code exp(-elapsed / decay)}, and
+ * jumps at once to any slower sample, so a host slowing down loses calls right away and gets them back gradually.
+ * Failed calls count as twice the current average, so fast failures don't make a host look cheap. While idle the
+ * average decays towards zero, so slow hosts, like the ones in another zone, get probed again from time to time. Hosts
+ * without responses yet cost nothing while idle and the most while their first call is in flight.
+ */
+final class PeakEwmaStrategy implements SelectionStrategy {
+
+    private static final double PENALTY = Long.MAX_VALUE >> 1;
+
+    private final double decayNanos;
+    private final LongSupplier nanoClock;
+
+    PeakEwmaStrategy(long decayNanos, LongSupplier nanoClock) {
+        if (decayNanos <= 0)
+            throw new IllegalArgumentException("Decay must be positive");
+        this.decayNanos = decayNanos;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public Endpoint select(List<Endpoint> endpoints) {
+        int size = endpoints.size();
+        long now = nanoClock.getAsLong();
+        int start = ThreadLocalRandom.current().nextInt(size);
+        Endpoint best = null;
+        double bestCost = Double.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            Endpoint candidate = endpoints.get((start + i) % size);
+            double cost = cost(candidate, now);
+            if (best == null || cost < bestCost) {
+                best = candidate;
+                bestCost = cost;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public void record(Endpoint endpoint, boolean failed, long latencyNanos) {
+        long now = nanoClock.getAsLong();
+        Ewma current;
+        Ewma updated;
+        do {
+            current = endpoint.peakEwma.get();
+            double sample = failed && current != null ? Math.max(latencyNanos, 2 * current.nanos) : latencyNanos;
+            updated = new Ewma(current == null || sample > current.nanos ? sample
+                    : current.nanos * weight(now - current.stampNanos) + sample * (1 - weight(now - current.stampNanos)), now);
+        } while (!endpoint.peakEwma.compareAndSet(current, updated));
+    }
+
+    double cost(Endpoint endpoint, long nowNanos) {
+        Ewma ewma = endpoint.peakEwma.get();
+        int inFlight = endpoint.inFlight();
+        if (ewma == null)
+            return inFlight == 0 ? 0 : PENALTY + inFlight;
+        return ewma.nanos * weight(nowNanos - ewma.stampNanos) * (inFlight + 1);
+    }
+
+    private double weight(long elapsedNanos) {
+        return Math.exp(-Math.max(0, elapsedNanos) / decayNanos);
+    }
+
+    static final class Ewma {
+        private final double nanos;
+        private final long stampNanos;
+
+        private Ewma(double nanos, long stampNanos) {
+            this.nanos = nanos;
+            this.stampNanos = stampNanos;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+/**
+ * Turns client calls into {@link Mono} and {@link Flux} results. Apart from {@link CallContext} so reactor, an optional
+ * dependency, is only loaded by clients declaring reactive methods.
+ * <p>
+ * Nothing runs until subscription. {@link Flux} methods decode the json array lazily and read one element from the
+ * connection per requested element, so a slow subscriber holds the server back instead of buffering the whole array;
+ * cancelling closes the connection.
+ */
+final class ReactiveCalls {
+
+    private final Scheduler scheduler;
+
+    /**
+     * @param executor runs the calls and the element reads; when null they run on reactor's elastic scheduler, as
+     *                 they block and must never run on the subscribing thread, which may be an event loop.
+     */
+    ReactiveCalls(Executor executor) {
+        this.scheduler = executor == null ? Schedulers.elastic() : Schedulers.fromExecutor(executor);
+    }
+
+    Mono<Object> mono(Callable<Object> call) {
+        return Mono.fromCallable(call).subscribeOn(scheduler);
+    }
+
+    /**
+     * @param call returns the lazy {@link Iterator} the decoder built for the method's {@code Flux<T>} type.
+     */
+    Flux<Object> flux(Callable<Object> call) {
+        return Flux.generate(() -> (Iterator<?>) call.call(), ReactiveCalls::next, ReactiveCalls::close)
+                .subscribeOn(scheduler);
+    }
+
+    private static Iterator<?> next(Iterator<?> elements, SynchronousSink<Object> sink) {
+        if (elements.hasNext())
+            sink.next(elements.next());
+        else
+            sink.complete();
+        return elements;
+    }
+
+    private static void close(Iterator<?> elements) {
+        if (elements instanceof Closeable) {
+            try {
+                ((Closeable) elements).close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
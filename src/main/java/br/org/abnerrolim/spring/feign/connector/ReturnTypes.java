@@ -0,0 +1,41 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+/**
+ * Helpers over client method return types wrapping the decoded body, like {@code ClientResponse<T>} or
+ * {@code Stream<T>}.
+ */
+final class ReturnTypes {
+
+    // matched by name, reactor is optional
+    private static final String MONO = "reactor.core.publisher.Mono";
+    private static final String FLUX = "reactor.core.publisher.Flux";
+
+    private ReturnTypes() {
+    }
+
+    static boolean isMono(Type type) {
+        return rawType(type).getName().equals(MONO);
+    }
+
+    static boolean isFlux(Type type) {
+        return rawType(type).getName().equals(FLUX);
+    }
+
+    static Class<?> rawType(Type type) {
+        if (type instanceof Class)
+            return (Class<?>) type;
+        if (type instanceof ParameterizedType)
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        return Object.class;
+    }
+
+    /**
+     * @return the single type argument of a wrapper type, Object for raw types.
+     */
+    static Type typeArgument(Type type) {
+        return type instanceof ParameterizedType ? ((ParameterizedType) type).getActualTypeArguments()[0] : Object.class;
+    }
+}
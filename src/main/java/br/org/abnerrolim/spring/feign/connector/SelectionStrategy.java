@@ -0,0 +1,90 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Picks the {@link Endpoint} of each call. Called concurrently, so implementations keep their state in atomics.
+ */
+@FunctionalInterface
+public interface SelectionStrategy {
+
+    /**
+     * @param endpoints never empty.
+     */
+    Endpoint select(List<Endpoint> endpoints);
+
+    /**
+     * Called from the response path of each call sent to {@code endpoint}, for strategies learning from outcomes.
+     *
+     * @param failed true for connection errors and 5xx responses.
+     */
+    default void record(Endpoint endpoint, boolean failed, long latencyNanos) {
+    }
+
+    static SelectionStrategy roundRobin() {
+        AtomicInteger next = new AtomicInteger();
+        return endpoints -> endpoints.get(Math.floorMod(next.getAndIncrement(), endpoints.size()));
+    }
+
+    static SelectionStrategy random() {
+        return endpoints -> endpoints.get(ThreadLocalRandom.current().nextInt(endpoints.size()));
+    }
+
+    /**
+     * The endpoint with less calls in flight. The scan starts at a random endpoint so ties don't always go to the
+     * first host.
+     */
+    static SelectionStrategy leastOutstanding() {
+        return endpoints -> {
+            int size = endpoints.size();
+            int start = ThreadLocalRandom.current().nextInt(size);
+            Endpoint best = endpoints.get(start);
+            for (int i = 1; i < size && best.inFlight() > 0; i++) {
+                Endpoint candidate = endpoints.get((start + i) % size);
+                if (candidate.inFlight() < best.inFlight())
+                    best = candidate;
+            }
+            return best;
+        };
+    }
+
+    /**
+     * Same as {@link #peakEwma(Duration)} with a 10 seconds decay.
+     */
+    static SelectionStrategy peakEwma() {
+        return peakEwma(Duration.ofSeconds(10));
+    }
+
+    /**
+     * The endpoint with the lowest peak EWMA response time times its calls in flight plus one, so calls go to the
+     * fastest hosts while they are not overloaded and slower ones, like replicas in other zones, are kept as failover.
+     *
+     * @param decay how long the average remembers past response times, as the time constant of its exponential decay.
+     */
+    static SelectionStrategy peakEwma(Duration decay) {
+        return new PeakEwmaStrategy(decay.toNanos(), System::nanoTime);
+    }
+
+    /**
+     * The endpoint with less calls in flight between two picked at random: close to {@link #leastOutstanding()}
+     * without scanning every host, and less prone to send every new call to the same idle host.
+     */
+    static SelectionStrategy powerOfTwoChoices() {
+        return endpoints -> {
+            int size = endpoints.size();
+            if (size == 1)
+                return endpoints.get(0);
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int first = random.nextInt(size);
+            int second = random.nextInt(size - 1);
+            if (second >= first)
+                second++;
+            Endpoint a = endpoints.get(first);
+            Endpoint b = endpoints.get(second);
+            return b.inFlight() < a.inFlight() ? b : a;
+        };
+    }
+}
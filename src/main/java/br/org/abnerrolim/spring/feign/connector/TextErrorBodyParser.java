@@ -0,0 +1,34 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Plain text errors become the message, read up to {@link #MAX_MESSAGE_LENGTH} chars so big pages don't end in it.
+ */
+final class TextErrorBodyParser implements ErrorBodyParser {
+
+    static final int MAX_MESSAGE_LENGTH = 1024;
+
+    @Override
+    public ErrorResponse parse(InputStream body, MediaType mediaType) throws IOException {
+        Charset charset = mediaType.getCharset() != null ? mediaType.getCharset() : StandardCharsets.UTF_8;
+        Reader reader = new InputStreamReader(body, charset);
+        char[] message = new char[MAX_MESSAGE_LENGTH];
+        int length = 0;
+        while (length < message.length) {
+            int n = reader.read(message, length, message.length - length);
+            if (n < 0)
+                break;
+            length += n;
+        }
+        String text = new String(message, 0, length).trim();
+        return text.isEmpty() ? null : ErrorResponse.of(null, text);
+    }
+}
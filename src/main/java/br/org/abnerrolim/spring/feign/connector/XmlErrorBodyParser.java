@@ -0,0 +1,145 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import org.springframework.http.MediaType;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams xml errors with StAX. Children of the root element bind like json fields: {@code code}, {@code message},
+ * {@code fields} (one child per field, repeated for many messages) and anything else as metadata, nested elements as
+ * maps. Attributes are ignored, DTDs are not processed and bodies nested deeper than {@value #MAX_DEPTH} elements are
+ * not parsed.
+ */
+final class XmlErrorBodyParser implements ErrorBodyParser {
+
+    static final int MAX_DEPTH = 32;
+    private static final XMLInputFactory FACTORY = newFactory();
+
+    @Override
+    public ErrorResponse parse(InputStream body, MediaType mediaType) throws IOException {
+        XMLStreamReader reader = null;
+        try {
+            reader = mediaType.getCharset() != null ?
+                    FACTORY.createXMLStreamReader(body, mediaType.getCharset().name())
+                    : FACTORY.createXMLStreamReader(body);
+            while (reader.hasNext() && reader.next() != XMLStreamConstants.START_ELEMENT) {
+            }
+            if (!reader.isStartElement())
+                return null;
+            Object root = readElement(reader, 1);
+            if (root == null)
+                return null;
+            if (!(root instanceof Map))
+                return root.toString().isEmpty() ? null : ErrorResponse.of(null, root.toString());
+            @SuppressWarnings("unchecked")
+            Map<String, Object> values = (Map<String, Object>) root;
+            ErrorResponse error = new ErrorResponse(fields(remove(values, "fields")), string(remove(values, "code")), string(remove(values, "message")));
+            error.metadata(values);
+            return error;
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid xml error body", e);
+        } finally {
+            if (reader != null)
+                close(reader);
+        }
+    }
+
+    /**
+     * @return the trimmed text of a leaf element or a map of its children, repeated children as lists, null when
+     * nested deeper than {@link #MAX_DEPTH}.
+     */
+    private static Object readElement(XMLStreamReader reader, int depth) throws XMLStreamException {
+        if (depth > MAX_DEPTH)
+            return null;
+        Map<String, Object> children = null;
+        StringBuilder text = new StringBuilder();
+        while (true) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if (children == null)
+                    children = new LinkedHashMap<>();
+                String name = reader.getLocalName();
+                Object child = readElement(reader, depth + 1);
+                if (child == null)
+                    return null;
+                add(children, name, child);
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                text.append(reader.getText());
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                return children != null ? children : text.toString().trim();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void add(Map<String, Object> children, String name, Object value) {
+        Object previous = children.get(name);
+        if (previous == null) {
+            children.put(name, value);
+        } else if (previous instanceof List) {
+            ((List<Object>) previous).add(value);
+        } else {
+            List<Object> repeated = new ArrayList<>();
+            repeated.add(previous);
+            repeated.add(value);
+            children.put(name, repeated);
+        }
+    }
+
+    private static Map<String, List<String>> fields(Object fields) {
+        if (!(fields instanceof Map))
+            return null;
+        Map<String, List<String>> result = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> field : ((Map<?, ?>) fields).entrySet()) {
+            if (field.getValue() instanceof List) {
+                List<String> messages = new ArrayList<>();
+                for (Object message : (List<?>) field.getValue())
+                    messages.add(String.valueOf(message));
+                result.put(field.getKey().toString(), messages);
+            } else {
+                result.put(field.getKey().toString(), Collections.singletonList(String.valueOf(field.getValue())));
+            }
+        }
+        return result.isEmpty() ? null : result;
+    }
+
+    private static Object remove(Map<String, Object> values, String name) {
+        for (Iterator<Map.Entry<String, Object>> it = values.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Object> entry = it.next();
+            if (entry.getKey().equalsIgnoreCase(name)) {
+                it.remove();
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static String string(Object value) {
+        return value == null || value instanceof Map ? null : value.toString();
+    }
+
+    private static void close(XMLStreamReader reader) {
+        try {
+            reader.close();
+        } catch (XMLStreamException ignored) {
+        }
+    }
+
+    private static XMLInputFactory newFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
@@ -0,0 +1,119 @@
+package br.org.abnerrolim.spring.feign.connector.logging;
+
+import br.org.abnerrolim.spring.feign.connector.utils.RingBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Moves obfuscation and log formatting out of the request path: callers only push an {@link Exchange} snapshot into a
+ * bounded lock-free ring buffer and a dedicated daemon worker obfuscates and logs it.
+ */
+public class AsyncExchangeLogger implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncExchangeLogger.class);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final RingBuffer<Exchange> buffer;
+    private final OverflowPolicy overflowPolicy;
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final AtomicBoolean running = new AtomicBoolean(true);
+    private final AtomicInteger submitting = new AtomicInteger();
+    private final Thread worker;
+
+    public AsyncExchangeLogger(int bufferSize, OverflowPolicy overflowPolicy) {
+        this("feign-connector-log", bufferSize, overflowPolicy);
+    }
+
+    public AsyncExchangeLogger(String workerName, int bufferSize, OverflowPolicy overflowPolicy) {
+        this.buffer = new RingBuffer<>(bufferSize);
+        this.overflowPolicy = overflowPolicy;
+        this.worker = new Thread(this::drain, workerName);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * @return false when the exchange was dropped, either because the buffer was full under {@link OverflowPolicy#DROP}
+     * or because this logger is closed.
+     */
+    public boolean submit(Exchange exchange) {
+        // counted before reading running, so the worker does not stop while this exchange is being offered
+        submitting.incrementAndGet();
+        try {
+            while (running.get()) {
+                if (buffer.offer(exchange)) {
+                    LockSupport.unpark(worker);
+                    return true;
+                }
+                if (overflowPolicy == OverflowPolicy.DROP)
+                    break;
+                LockSupport.unpark(worker);
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+            }
+        } finally {
+            submitting.decrementAndGet();
+        }
+        dropped.increment();
+        return false;
+    }
+
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    public long writtenCount() {
+        return written.sum();
+    }
+
+    public int pendingCount() {
+        return buffer.size();
+    }
+
+    /**
+     * Stops accepting exchanges and waits for the worker to log what was already buffered. When interrupted, stops
+     * waiting and keeps the interrupt status, while the worker still logs the buffered exchanges.
+     */
+    @Override
+    public void close() {
+        if (running.compareAndSet(true, false)) {
+            LockSupport.unpark(worker);
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            Exchange exchange = buffer.poll();
+            if (exchange == null) {
+                if (running.get()) {
+                    // submit and close unpark the worker
+                    LockSupport.park(this);
+                } else if (submitting.get() == 0 && buffer.isEmpty()) {
+                    return;
+                } else {
+                    // closed while a submit that saw it running may still offer its exchange
+                    LockSupport.parkNanos(this, FULL_PARK_NANOS);
+                }
+                continue;
+            }
+            try {
+                exchange.write();
+            } catch (Exception e) {
+                log.warn("{} Module - Unable to log exchange of method {}", exchange.moduleName(), exchange.methodKey(), e);
+            } finally {
+                written.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package br.org.abnerrolim.spring.feign.connector.logging;
+
+import br.org.abnerrolim.spring.feign.connector.obfuscate.HttpObfuscator;
+import feign.Request;
+import feign.Response;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+
+/**
+ * Raw snapshot of a request/response exchange, detached from the connection so it can be obfuscated and logged
+ * later on another thread.
+ */
+public final class Exchange {
+
+    private final Logger logger;
+    private final HttpObfuscator httpObfuscator;
+    private final String moduleName;
+    private final String methodKey;
+    private final Request request;
+    private final Response response;
+    private final boolean failed;
+
+    private Exchange(Logger logger, HttpObfuscator httpObfuscator, String moduleName, String methodKey, Request request, Response response, boolean failed) {
+        this.logger = logger;
+        this.httpObfuscator = httpObfuscator;
+        this.moduleName = moduleName;
+        this.methodKey = methodKey;
+        this.request = request;
+        this.response = response;
+        this.failed = failed;
+    }
+
+    public static Exchange success(Logger logger, HttpObfuscator httpObfuscator, String moduleName, String methodKey, Response response) {
+        return new Exchange(logger, httpObfuscator, moduleName, methodKey, response.request(), response, false);
+    }
+
+    public static Exchange failure(Logger logger, HttpObfuscator httpObfuscator, String moduleName, String methodKey, Response response) {
+        return new Exchange(logger, httpObfuscator, moduleName, methodKey, response.request(), response, true);
+    }
+
+    public String moduleName() {
+        return moduleName;
+    }
+
+    public String methodKey() {
+        return methodKey;
+    }
+
+    public Request request() {
+        return request;
+    }
+
+    public Response response() {
+        return response;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    void write() throws IOException {
+        if (failed)
+            logger.error("{} Module - Error calling method {}. Request was [{}].\nResponse was [{}]", moduleName, methodKey, httpObfuscator.obfuscate(request), httpObfuscator.obfuscate(response));
+        else
+            logger.info("{} Module - Request was [{}]. Response was [{}]", moduleName, httpObfuscator.obfuscate(request), httpObfuscator.obfuscate(response));
+    }
+}
@@ -0,0 +1,122 @@
+package br.org.abnerrolim.spring.feign.connector.logging;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides, before any body is read, whether an exchange is logged. Rules are checked in this order: slow calls are
+ * always logged, then the status class rate, the method key rate and finally the default rate, so sampling a method
+ * down doesn't hide its errors when their status class has a rule.
+ */
+public final class LogSampling {
+
+    private static final LogSampling ALWAYS = builder().build();
+
+    private final double rate;
+    private final double[] statusClassRates;
+    private final Map<String, Double> methodRates;
+    private final long slowCallNanos;
+
+    private LogSampling(double rate, double[] statusClassRates, Map<String, Double> methodRates, long slowCallNanos) {
+        this.rate = rate;
+        this.statusClassRates = statusClassRates;
+        this.methodRates = methodRates;
+        this.slowCallNanos = slowCallNanos;
+    }
+
+    public static LogSampling always() {
+        return ALWAYS;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @param methodKey    Feign method key (eg. {@code CreditCardService#find(String)}), may be null when unknown.
+     * @param elapsedNanos time since the call started until the response arrived, negative when unknown.
+     */
+    public boolean shouldLog(String methodKey, int status, long elapsedNanos) {
+        if (slowCallNanos >= 0 && elapsedNanos >= slowCallNanos)
+            return true;
+        return sample(rateOf(methodKey, status));
+    }
+
+    private double rateOf(String methodKey, int status) {
+        int statusClass = status / 100;
+        if (statusClass >= 0 && statusClass < statusClassRates.length && !Double.isNaN(statusClassRates[statusClass]))
+            return statusClassRates[statusClass];
+        if (methodKey != null && !methodRates.isEmpty()) {
+            Double methodRate = methodRates.get(methodKey);
+            if (methodRate != null)
+                return methodRate;
+        }
+        return rate;
+    }
+
+    private static boolean sample(double rate) {
+        if (rate >= 1d)
+            return true;
+        if (rate <= 0d)
+            return false;
+        return ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    public static class Builder {
+        private double rate = 1d;
+        private final double[] statusClassRates = new double[]{Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN};
+        private final Map<String, Double> methodRates = new HashMap<>();
+        private long slowCallNanos = -1;
+
+        private Builder() {
+        }
+
+        /**
+         * Fraction, between 0 and 1, of the exchanges logged when no other rule applies. Defaults to 1.
+         */
+        public Builder rate(double rate) {
+            this.rate = checkRate(rate);
+            return this;
+        }
+
+        /**
+         * @param statusClass first digit of the status, eg. {@code 5} to 5xx responses.
+         */
+        public Builder statusClassRate(int statusClass, double rate) {
+            if (statusClass < 1 || statusClass > 5)
+                throw new IllegalArgumentException("Status class must be between 1 and 5");
+            statusClassRates[statusClass] = checkRate(rate);
+            return this;
+        }
+
+        public Builder methodRate(String methodKey, double rate) {
+            methodRates.put(methodKey, checkRate(rate));
+            return this;
+        }
+
+        public Builder alwaysLogSlowerThan(Duration threshold) {
+            if (threshold.isNegative())
+                throw new IllegalArgumentException("Slow call threshold must not be negative");
+            this.slowCallNanos = threshold.toNanos();
+            return this;
+        }
+
+        public LogSampling build() {
+            return new LogSampling(
+                    rate,
+                    statusClassRates.clone(),
+                    methodRates.isEmpty() ? Collections.emptyMap() : new HashMap<>(methodRates),
+                    slowCallNanos
+            );
+        }
+
+        private static double checkRate(double rate) {
+            if (Double.isNaN(rate) || rate < 0d || rate > 1d)
+                throw new IllegalArgumentException("Sampling rate must be between 0 and 1");
+            return rate;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package br.org.abnerrolim.spring.feign.connector.logging;
+
+/**
+ * What a caller does when the asynchronous log buffer is full.
+ */
+public enum OverflowPolicy {
+    /**
+     * The exchange is not logged and the dropped counter is incremented, the caller never waits.
+     */
+    DROP,
+    /**
+     * The caller waits until the worker frees a slot.
+     */
+    BLOCK
+}
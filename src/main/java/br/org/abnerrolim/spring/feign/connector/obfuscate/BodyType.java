@@ -0,0 +1,104 @@
+package br.org.abnerrolim.spring.feign.connector.obfuscate;
+
+import br.org.abnerrolim.spring.feign.connector.BinaryCodec;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * How a request/response body must be logged, resolved once per message from its Content-Type and Content-Encoding.
+ */
+final class BodyType {
+
+    enum Format {
+        JSON, BINARY_JSON, FORM, TEXT, BINARY, UNKNOWN
+    }
+
+    static final BodyType UNKNOWN = new BodyType(Format.UNKNOWN, StandardCharsets.UTF_8, null);
+
+    private static final String CONTENT_TYPE = "Content-Type";
+    private static final String CONTENT_ENCODING = "Content-Encoding";
+
+    final Format format;
+    final Charset charset;
+    /**
+     * Binary Jackson format of {@link Format#BINARY_JSON} bodies, logged as masked json.
+     */
+    final BinaryCodec codec;
+
+    private BodyType(Format format, Charset charset, BinaryCodec codec) {
+        this.format = format;
+        this.charset = charset;
+        this.codec = codec;
+    }
+
+    static BodyType of(Map<String, Collection<String>> headers) {
+        if (headers == null || headers.isEmpty())
+            return UNKNOWN;
+        String encoding = header(headers, CONTENT_ENCODING);
+        if (encoding != null && !encoding.trim().isEmpty() && !"identity".equalsIgnoreCase(encoding.trim()))
+            return new BodyType(Format.BINARY, StandardCharsets.UTF_8, null);
+        String contentType = header(headers, CONTENT_TYPE);
+        if (contentType == null || contentType.trim().isEmpty())
+            return UNKNOWN;
+        BinaryCodec codec = BinaryCodec.of(contentType);
+        if (codec != null)
+            return new BodyType(Format.BINARY_JSON, StandardCharsets.UTF_8, codec);
+        return new BodyType(format(contentType), charset(contentType), null);
+    }
+
+    /**
+     * Bodies without Content-Type are logged as json when they look like json, otherwise they are omitted.
+     */
+    Format resolve(byte[] body, int length) {
+        if (format != Format.UNKNOWN)
+            return format;
+        for (int i = 0; i < length; i++) {
+            byte b = body[i];
+            if (b == '{' || b == '[')
+                return Format.JSON;
+            if (b != ' ' && b != '\t' && b != '\r' && b != '\n')
+                return Format.BINARY;
+        }
+        return Format.BINARY;
+    }
+
+    private static Format format(String contentType) {
+        int params = contentType.indexOf(';');
+        String mediaType = (params < 0 ? contentType : contentType.substring(0, params)).trim().toLowerCase(Locale.ROOT);
+        // application/json, *+json and vendor or legacy types like application/vnd.acme.v1.json or text/json
+        if (mediaType.contains("json"))
+            return Format.JSON;
+        if (mediaType.equals("application/x-www-form-urlencoded"))
+            return Format.FORM;
+        if (mediaType.startsWith("text/") || mediaType.equals("application/xml") || mediaType.endsWith("+xml")
+                || mediaType.equals("application/javascript"))
+            return Format.TEXT;
+        return Format.BINARY;
+    }
+
+    private static Charset charset(String contentType) {
+        for (String param : contentType.split(";")) {
+            String trimmed = param.trim();
+            if (trimmed.regionMatches(true, 0, "charset=", 0, 8)) {
+                try {
+                    return Charset.forName(trimmed.substring(8).replace("\"", "").trim());
+                } catch (IllegalArgumentException e) {
+                    return StandardCharsets.UTF_8;
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private static String header(Map<String, Collection<String>> headers, String name) {
+        for (Map.Entry<String, Collection<String>> header : headers.entrySet()) {
+            if (name.equalsIgnoreCase(header.getKey()) && header.getValue() != null && !header.getValue().isEmpty())
+                return header.getValue().iterator().next();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,150 @@
+package br.org.abnerrolim.spring.feign.connector.obfuscate;
+
+import feign.Response;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Tee over a response body: every byte read by the decoder flows through untouched while the first
+ * {@code maxCaptured} bytes are kept aside to be obfuscated and logged.
+ */
+public class CapturingInputStream extends FilterInputStream {
+
+    private static final int INITIAL_CAPACITY = 512;
+
+    private final int maxCaptured;
+    private final Integer declaredLength;
+    private byte[] captured;
+    private int capturedCount;
+    private long total;
+    private boolean eof;
+
+    public CapturingInputStream(InputStream in, int maxCaptured, Integer declaredLength) {
+        super(in);
+        this.maxCaptured = maxCaptured;
+        this.declaredLength = declaredLength;
+        int initial = declaredLength != null && declaredLength >= 0 ? declaredLength : INITIAL_CAPACITY;
+        this.captured = new byte[Math.max(0, Math.min(initial, maxCaptured))];
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b < 0)
+            eof = true;
+        else
+            capture((byte) b);
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n < 0)
+            eof = true;
+        else
+            capture(b, off, n);
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        total += skipped;
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    /**
+     * Reads what was not consumed by the decoder until the capture is full or the body ends, so bodies that were never
+     * read (eg. non json error responses) are still logged. Bytes beyond the capture limit are left in the stream.
+     */
+    public void fillCapture() {
+        byte[] chunk = new byte[Math.max(1, Math.min(INITIAL_CAPACITY, maxCaptured))];
+        try {
+            while (!eof && capturedCount < maxCaptured) {
+                read(chunk, 0, Math.min(chunk.length, maxCaptured - capturedCount));
+            }
+        } catch (IOException e) {
+            eof = true;
+        }
+    }
+
+    /**
+     * Copy of {@code response} holding only the captured bytes in memory. The declared length keeps the original body
+     * size, so obfuscating the copy still reports the body as truncated.
+     */
+    public Response snapshotOf(Response response) {
+        fillCapture();
+        return Response.builder()
+                .body(new ByteArrayInputStream(captured()), (int) Math.min(Integer.MAX_VALUE, totalLength()))
+                .headers(response.headers())
+                .reason(response.reason())
+                .request(response.request())
+                .status(response.status())
+                .build();
+    }
+
+    public byte[] captured() {
+        return Arrays.copyOf(captured, capturedCount);
+    }
+
+    public int capturedLength() {
+        return capturedCount;
+    }
+
+    public boolean isTruncated() {
+        return total > capturedCount || (declaredLength != null && declaredLength > capturedCount);
+    }
+
+    /**
+     * Total body size: the declared Content-Length when present, otherwise the bytes seen so far.
+     */
+    public long totalLength() {
+        return declaredLength != null && declaredLength >= 0 ? Math.max(declaredLength, total) : total;
+    }
+
+    public boolean isTotalKnown() {
+        return eof || (declaredLength != null && declaredLength >= 0);
+    }
+
+    private void capture(byte b) {
+        total++;
+        if (capturedCount < maxCaptured) {
+            ensureCapacity(capturedCount + 1);
+            captured[capturedCount++] = b;
+        }
+    }
+
+    private void capture(byte[] b, int off, int n) {
+        total += n;
+        int toCapture = Math.min(n, maxCaptured - capturedCount);
+        if (toCapture <= 0)
+            return;
+        ensureCapacity(capturedCount + toCapture);
+        System.arraycopy(b, off, captured, capturedCount, toCapture);
+        capturedCount += toCapture;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > captured.length)
+            captured = Arrays.copyOf(captured, Math.min(maxCaptured, Math.max(captured.length * 2, capacity)));
+    }
+}
@@ -1,39 +1,56 @@
 package br.org.abnerrolim.spring.feign.connector.obfuscate;
 
+import br.org.abnerrolim.spring.feign.connector.utils.BufferPool;
 import br.org.abnerrolim.spring.feign.connector.utils.FeignJsonMapper;
+import br.org.abnerrolim.spring.feign.connector.utils.FieldPathAutomaton;
+import br.org.abnerrolim.spring.feign.connector.utils.JsonStreamObfuscator;
+import br.org.abnerrolim.spring.feign.connector.utils.PathTemplateMatcher;
+import br.org.abnerrolim.spring.feign.connector.utils.PooledByteArrayOutputStream;
 import br.org.abnerrolim.spring.feign.connector.utils.StringObfuscationUtils;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import feign.Request;
 import feign.Response;
-import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.Reader;
-import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.regex.Pattern;
 
 public class ConfigurableHttpObfuscator implements HttpObfuscator {
 
     private static final Logger log = LoggerFactory.getLogger(ConfigurableHttpObfuscator.class);
+    private static final int DEFAULT_MAX_LOGGED_TEXT_SIZE = 4096;
+    private static final String TRUNCATED_MARKER = "...[truncated: %d of %s%d bytes logged]";
+    private static final int TRUNCATED_MARKER_SIZE = 64;
+    private static final byte[] EMPTY_BODY = new byte[0];
 
     private final List<String> headers;
-    private final List<String> jsonBodyFields;
-    private final Map<Pattern, List<Integer>> encodePathSegments;
+    private final FieldPathAutomaton jsonBodyFields;
+    private final PathTemplateMatcher encodePathSegments;
 
     private final FeignJsonMapper jsonMapper;
+    private final JsonStreamObfuscator jsonStreamObfuscator;
+    private final boolean streamingJsonBody;
+    private final int maxLoggedBodySize;
+    private final BufferPool bufferPool;
 
-    private ConfigurableHttpObfuscator(List<String> headers, List<String> jsonBodyFields, Map<Pattern, List<Integer>> encodePathSegments, FeignJsonMapper jsonMapper) {
+    private ConfigurableHttpObfuscator(List<String> headers, FieldPathAutomaton jsonBodyFields, PathTemplateMatcher encodePathSegments, FeignJsonMapper jsonMapper, boolean streamingJsonBody, int maxLoggedBodySize, BufferPool bufferPool) {
         this.headers = headers;
         this.jsonBodyFields = jsonBodyFields;
         this.encodePathSegments = encodePathSegments;
         this.jsonMapper = jsonMapper;
+        this.jsonStreamObfuscator = new JsonStreamObfuscator(jsonMapper.getMAPPER(), jsonBodyFields);
+        this.streamingJsonBody = streamingJsonBody;
+        this.maxLoggedBodySize = maxLoggedBodySize;
+        this.bufferPool = bufferPool;
     }
 
     public static Builder builder(ObjectMapper objectMapper){
@@ -47,19 +64,22 @@ public class ConfigurableHttpObfuscator implements HttpObfuscator {
         private FeignJsonMapper jsonMapper;
         private List<String> headers;
         private List<String> jsonBodyFields;
-        private Map<Pattern, List<Integer>> encodePathSegments;
+        private List<String> encodePathSegments;
+        private boolean streamingJsonBody;
+        private int maxLoggedBodySize;
+        private BufferPool bufferPool = BufferPool.shared();
 
         private Builder(ObjectMapper objectMapper) {
             this.jsonMapper = new FeignJsonMapper(objectMapper);
             headers = new ArrayList<>();
             jsonBodyFields = new ArrayList<>();
-            encodePathSegments = new HashMap<Pattern, List<Integer>>();
+            encodePathSegments = new ArrayList<>();
         }
         private Builder() {
             this.jsonMapper = new FeignJsonMapper();
             headers = new ArrayList<>();
             jsonBodyFields = new ArrayList<>();
-            encodePathSegments = new HashMap<Pattern, List<Integer>>();
+            encodePathSegments = new ArrayList<>();
         }
 
         public Builder headers(String... headerKeys) {
@@ -72,55 +92,67 @@ public class ConfigurableHttpObfuscator implements HttpObfuscator {
             return this;
         }
 
-        public Builder pathSegments(List<String> pathsObfuscateTemplate) {
-            for (String template : pathsObfuscateTemplate) {
-                String er = template.replaceAll("\\$\\{value\\}", ".*").replaceAll("\\$\\{obfuscate\\}", ".*");
-                String[] segments = template.split("/");
-                List<Integer> segmentIdx = new ArrayList<>();
-                for (int i = 0; i < segments.length; i++) {
-                    if ("${obfuscate}".equals(segments[i])) {
-                        segmentIdx.add(i);
-                    }
-                }
-                Pattern pattern = Pattern.compile(er);
-                encodePathSegments.put(pattern, segmentIdx);
-            }
+        public Builder streamingJsonBody() {
+            this.streamingJsonBody = true;
+            return this;
+        }
 
+        /**
+         * Bodies are no longer fully buffered to be logged: only the first {@code bytes} are captured while the body
+         * streams to the decoder, and the log shows a truncation marker with the total size.
+         */
+        public Builder maxLoggedBodySize(int bytes) {
+            if (bytes <= 0)
+                throw new IllegalArgumentException("Max logged body size must be positive");
+            this.maxLoggedBodySize = bytes;
+            return this;
+        }
+
+        /**
+         * Pool of the scratch buffers used to copy and mask bodies, {@link BufferPool#shared()} by default.
+         */
+        public Builder bufferPool(BufferPool bufferPool) {
+            this.bufferPool = bufferPool;
+            return this;
+        }
+
+        public Builder pathSegments(List<String> pathsObfuscateTemplate) {
+            encodePathSegments.addAll(pathsObfuscateTemplate);
             return this;
         }
 
         public ConfigurableHttpObfuscator build() {
             return new ConfigurableHttpObfuscator(
                     headers,
-                    jsonBodyFields,
-                    encodePathSegments,
-                    jsonMapper
+                    FieldPathAutomaton.compile(jsonBodyFields),
+                    PathTemplateMatcher.compile(encodePathSegments),
+                    jsonMapper,
+                    streamingJsonBody,
+                    maxLoggedBodySize,
+                    bufferPool
             );
         }
     }
 
 
     public RequestWrapper obfuscate(Request request){
-        Map<String, Collection<String>> obfuscatedHeaders = obfuscateHeaders(request.headers());
-        String obfuscatedUrl = obfuscateUrl(request.url());
-        byte[] obfuscated = obfuscateBody(request.body()).getBytes();
-        Request obfuscatedRequest = Request.create(
-                request.method(),
-                obfuscatedUrl,
-                obfuscatedHeaders,
-                obfuscated,
-                request.charset()
-        );
-        return new RequestWrapper(obfuscatedRequest);
+        return new RequestWrapper(request, this::obfuscateRequest);
     }
 
     public ResponseWrapper obfuscate(Response response) throws IOException{
-        Map<String, Collection<String>> obfuscatedHeaders = obfuscateHeaders(response.headers());
-        byte[] obfuscated;
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        BodyType bodyType = BodyType.of(response.headers());
+        if (response.body() == null)
+            return new ResponseWrapper(response, r -> obfuscatedResponse(r, EMPTY_BODY));
+        if (bodyType.format == BodyType.Format.BINARY) {
+            Integer length = response.body().length();
+            return new ResponseWrapper(response, r -> obfuscatedResponse(r, omitted(length == null ? -1 : length).getBytes(StandardCharsets.UTF_8)),
+                    () -> binarySnapshot(response, length));
+        }
+        if (maxLoggedBodySize > 0)
+            return capture(response, bodyType);
         try {
-            IOUtils.copy(response.body().asInputStream(), baos);
-            byte[] originalBody = baos.toByteArray();
+            Integer declaredLength = response.body().length();
+            byte[] originalBody = bufferPool.readFully(response.body().asInputStream(), declaredLength);
             Response responseOriginalCopy = Response.builder()
                     .body(originalBody)
                     .headers(response.headers())
@@ -128,21 +160,68 @@ public class ConfigurableHttpObfuscator implements HttpObfuscator {
                     .request(response.request())
                     .status(response.status())
                     .build();
-            obfuscated = obfuscateBody(baos.toByteArray()).getBytes();
-            Response responseObfuscated = Response.builder()
-                    .body(obfuscated)
-                    .headers(obfuscatedHeaders)
-                    .reason(response.reason())
-                    .request(response.request())
-                    .status(response.status())
-                    .build();
-            return new ResponseWrapper(responseObfuscated, responseOriginalCopy);
+            long total = declaredLength != null ? Math.max(declaredLength, originalBody.length) : originalBody.length;
+            return new ResponseWrapper(responseOriginalCopy, r -> obfuscatedResponse(r, obfuscateBody(originalBody, total, bodyType)));
         }finally {
             response.body().close();
-            baos.close();
         }
     }
 
+    private ResponseWrapper capture(Response response, BodyType bodyType) throws IOException {
+        CapturingInputStream capture = new CapturingInputStream(response.body().asInputStream(), maxLoggedBodySize, response.body().length());
+        Response streamingResponse = Response.builder()
+                .body(capture, response.body().length())
+                .headers(response.headers())
+                .reason(response.reason())
+                .request(response.request())
+                .status(response.status())
+                .build();
+        return new ResponseWrapper(streamingResponse, r -> obfuscateCapturedResponse(r, capture, bodyType),
+                () -> capture.snapshotOf(response));
+    }
+
+    /**
+     * The declared length keeps the original body size, so a later obfuscation still reports it as omitted.
+     */
+    private static Response binarySnapshot(Response response, Integer declaredLength) {
+        return Response.builder()
+                .body(new ByteArrayInputStream(new byte[0]), declaredLength)
+                .headers(response.headers())
+                .reason(response.reason())
+                .request(response.request())
+                .status(response.status())
+                .build();
+    }
+
+    private Request obfuscateRequest(Request request){
+        BodyType bodyType = BodyType.of(request.headers());
+        // binary bodies are logged as text, either masked json or the omitted marker
+        boolean binary = bodyType.format == BodyType.Format.BINARY || bodyType.format == BodyType.Format.BINARY_JSON;
+        return Request.create(
+                request.httpMethod(),
+                obfuscateUrl(request.url()),
+                obfuscateHeaders(request.headers()),
+                obfuscateBody(request.body(), request.body() == null ? 0 : request.body().length, bodyType),
+                binary && request.body() != null ? StandardCharsets.UTF_8 : request.charset()
+        );
+    }
+
+    private Response obfuscateCapturedResponse(Response response, CapturingInputStream capture, BodyType bodyType){
+        capture.fillCapture();
+        byte[] captured = capture.captured();
+        return obfuscatedResponse(response, obfuscateBody(captured, captured.length, capture.isTruncated(), capture.totalLength(), capture.isTotalKnown(), bodyType));
+    }
+
+    private Response obfuscatedResponse(Response response, byte[] body){
+        return Response.builder()
+                .body(body)
+                .headers(obfuscateHeaders(response.headers()))
+                .reason(response.reason())
+                .request(response.request())
+                .status(response.status())
+                .build();
+    }
+
     private Map<String, Collection<String>> obfuscateHeaders(Map<String, Collection<String>> rawHeaders) {
         Map<String, Collection<String>> newHeaders = new HashMap<>(rawHeaders);
         for (String header : headers) {
@@ -152,18 +231,134 @@ public class ConfigurableHttpObfuscator implements HttpObfuscator {
         return newHeaders;
     }
 
-    private String obfuscateBody(byte[] body){
-        String asString = "";
-        if(body != null && body.length > 1) {
-            try {
-                Reader reader = new StringReader(new String(body));
-                JsonNode node = StringObfuscationUtils.obfuscate(jsonMapper.read(reader, JsonNode.class), jsonBodyFields);
-                asString = jsonMapper.write(node);
-            }catch (Exception e){
-                log.error("Unable to obfuscate current request/response body as json. Body value was [{}] and will parsed as empty string", body, e);
+    /**
+     * @param total original body size, bigger than the given body when only its beginning was kept.
+     */
+    private byte[] obfuscateBody(byte[] body, long total, BodyType bodyType){
+        if (body == null)
+            return EMPTY_BODY;
+        int limit = maxLoggedBodySize > 0 ? maxLoggedBodySize : DEFAULT_MAX_LOGGED_TEXT_SIZE;
+        boolean cut = body.length > limit
+                && (maxLoggedBodySize > 0 || bodyType.resolve(body, body.length) == BodyType.Format.TEXT);
+        return obfuscateBody(body, cut ? limit : body.length, cut || total > body.length, Math.max(total, body.length), true, bodyType);
+    }
+
+    /**
+     * Masked bodies are written to a pooled scratch buffer and copied once to their exact size. Bodies logged as they
+     * are share the original array instead.
+     */
+    private byte[] obfuscateBody(byte[] body, int length, boolean truncated, long total, boolean totalKnown, BodyType bodyType){
+        if (length == 0)
+            return EMPTY_BODY;
+        BodyType.Format format = bodyType.resolve(body, length);
+        if (format == BodyType.Format.BINARY)
+            return omitted(totalKnown ? total : -1).getBytes(StandardCharsets.UTF_8);
+        if (!truncated && length == body.length && isLoggedAsIs(format, bodyType))
+            return body;
+        PooledByteArrayOutputStream out = new PooledByteArrayOutputStream(bufferPool, length + TRUNCATED_MARKER_SIZE);
+        try {
+            switch (format) {
+                case JSON:
+                    writeJsonBody(out, body, length, truncated);
+                    break;
+                case BINARY_JSON:
+                    writeBinaryJsonBody(out, body, length, truncated, bodyType);
+                    break;
+                case FORM:
+                    out.write(obfuscateFormBody(new String(body, 0, length, bodyType.charset)), StandardCharsets.UTF_8);
+                    break;
+                default:
+                    writeText(out, body, length, bodyType.charset);
             }
+            if (truncated)
+                out.write(String.format(TRUNCATED_MARKER, length, totalKnown ? "" : "at least ", total), StandardCharsets.UTF_8);
+            return out.toByteArray();
+        } finally {
+            out.release();
         }
-        return asString;
+    }
+
+    private boolean isLoggedAsIs(BodyType.Format format, BodyType bodyType){
+        return isUtf8Compatible(bodyType.charset)
+                && (format == BodyType.Format.TEXT || (format == BodyType.Format.FORM && jsonBodyFields.isEmpty()));
+    }
+
+    private void writeJsonBody(PooledByteArrayOutputStream out, byte[] body, int length, boolean truncated){
+        if (length <= 1)
+            return;
+        int start = out.size();
+        try {
+            if (streamingJsonBody || truncated || length < body.length) {
+                jsonStreamObfuscator.obfuscate(body, length, truncated, out);
+            } else {
+                ObjectMapper mapper = jsonMapper.getMAPPER();
+                JsonNode node = mapper.readTree(mapper.getFactory().createParser(body, 0, length));
+                if (node != null)
+                    mapper.writeValue(out, StringObfuscationUtils.obfuscate(node, jsonBodyFields));
+            }
+        }catch (Exception e){
+            out.reset(start);
+            log.error("Unable to obfuscate current request/response body of {} bytes as json. It will be logged as empty string", length, e);
+        }
+    }
+
+    private void writeBinaryJsonBody(PooledByteArrayOutputStream out, byte[] body, int length, boolean truncated, BodyType bodyType){
+        int start = out.size();
+        try {
+            jsonStreamObfuscator.obfuscate(bodyType.codec.factory(), body, length, truncated, out);
+        }catch (Exception e){
+            out.reset(start);
+            log.error("Unable to obfuscate current request/response body of {} bytes as {}. It will be logged as empty string", length, bodyType.codec, e);
+        }
+    }
+
+    private static void writeText(PooledByteArrayOutputStream out, byte[] body, int length, Charset charset){
+        if (isUtf8Compatible(charset))
+            out.write(body, 0, length);
+        else
+            out.write(new String(body, 0, length, charset), StandardCharsets.UTF_8);
+    }
+
+    private static boolean isUtf8Compatible(Charset charset){
+        return StandardCharsets.UTF_8.equals(charset) || StandardCharsets.US_ASCII.equals(charset);
+    }
+
+    /**
+     * Form values are masked when their key matches a configured json body field at the root level.
+     */
+    private String obfuscateFormBody(String form){
+        if (jsonBodyFields.isEmpty())
+            return form;
+        StringBuilder obfuscated = new StringBuilder(form.length());
+        int start = 0;
+        while (start <= form.length()) {
+            int end = form.indexOf('&', start);
+            if (end < 0)
+                end = form.length();
+            int equals = form.indexOf('=', start);
+            if (equals >= 0 && equals < end && isMaskedFormKey(form.substring(start, equals))) {
+                obfuscated.append(form, start, equals + 1);
+                StringObfuscationUtils.mask(obfuscated, end - equals - 1);
+            } else {
+                obfuscated.append(form, start, end);
+            }
+            if (end < form.length())
+                obfuscated.append('&');
+            start = end + 1;
+        }
+        return obfuscated.toString();
+    }
+
+    private boolean isMaskedFormKey(String key){
+        try {
+            return jsonBodyFields.root().field(URLDecoder.decode(key, "UTF-8")).isMasked();
+        } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+            return jsonBodyFields.root().field(key).isMasked();
+        }
+    }
+
+    private static String omitted(long length) {
+        return length < 0 ? "[binary body omitted]" : String.format("[binary body of %d bytes omitted]", length);
     }
 
     private String obfuscateUrl(String strUrl) {
@@ -171,11 +366,9 @@ public class ConfigurableHttpObfuscator implements HttpObfuscator {
         if (!encodePathSegments.isEmpty()) {
             try {
                 URL url = new URL(strUrl);
-                if (isObfuscationCandidate(url)) {
-                    List<Integer> segmentsToHide = segmentsToEncode(url);
-                    newUrl = StringObfuscationUtils.obfuscate(url, segmentsToHide);
-
-                }
+                Optional<List<Integer>> segmentsToHide = encodePathSegments.match(url.getPath());
+                if (segmentsToHide.isPresent())
+                    newUrl = StringObfuscationUtils.obfuscate(url, segmentsToHide.get());
             } catch (MalformedURLException u) {
                 log.warn("Unable to obfuscate URL {}", strUrl, u);
                 return strUrl;
@@ -184,22 +377,4 @@ public class ConfigurableHttpObfuscator implements HttpObfuscator {
         return newUrl;
     }
 
-    private boolean isObfuscationCandidate(URL url) {
-        return patternForUrl(url).isPresent();
-    }
-
-    private Optional<Pattern> patternForUrl(URL url) {
-        String path = url.getPath();
-        return encodePathSegments.keySet().stream().filter(p -> p.matcher(path).matches()).findAny();
-    }
-
-    private List<Integer> segmentsToEncode(URL url) {
-        Optional<Pattern> patternForUrl = patternForUrl(url);
-        if (patternForUrl.isPresent()) {
-            return encodePathSegments.get(patternForUrl.get());
-        } else {
-            return Collections.emptyList();
-        }
-    }
-
 }
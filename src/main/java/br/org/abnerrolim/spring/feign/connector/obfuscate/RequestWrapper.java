@@ -1,17 +1,35 @@
 package br.org.abnerrolim.spring.feign.connector.obfuscate;
 
 import feign.Request;
+import io.vavr.Lazy;
+
+import java.util.function.Function;
 
 public class RequestWrapper {
 
-    public final Request request;
+    private final Request original;
+    private final Lazy<Request> obfuscated;
 
     RequestWrapper(final Request request){
-        this.request = request;
+        this.original = request;
+        this.obfuscated = Lazy.of(() -> request);
+    }
+
+    RequestWrapper(final Request original, final Function<Request, Request> obfuscation){
+        this.original = original;
+        this.obfuscated = Lazy.of(() -> obfuscation.apply(original));
+    }
+
+    public Request getOriginal(){
+        return original;
+    }
+
+    public Request getObfuscated(){
+        return obfuscated.get();
     }
 
     @Override
     public String toString(){
-        return this.request.toString();
+        return getObfuscated().toString();
     }
 }
@@ -1,23 +1,51 @@
 package br.org.abnerrolim.spring.feign.connector.obfuscate;
 
 import feign.Response;
+import io.vavr.Lazy;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class ResponseWrapper {
 
-    public final Response obfuscated;
     public final Response original;
+    private final Lazy<Response> obfuscated;
+    private final Supplier<Response> snapshot;
 
     ResponseWrapper(final Response obfuscated, final Response original) {
-        this.obfuscated = obfuscated;
         this.original = original;
+        this.obfuscated = Lazy.of(() -> obfuscated);
+        this.snapshot = () -> original;
+    }
+
+    ResponseWrapper(final Response original, final Function<Response, Response> obfuscation) {
+        this(original, obfuscation, () -> original);
+    }
+
+    ResponseWrapper(final Response original, final Function<Response, Response> obfuscation, final Supplier<Response> snapshot) {
+        this.original = original;
+        this.obfuscated = Lazy.of(() -> obfuscation.apply(original));
+        this.snapshot = snapshot;
     }
 
     public Response getOriginalCopy(){
         return original;
     }
 
+    public Response getObfuscated(){
+        return obfuscated.get();
+    }
+
+    /**
+     * Response holding in memory only what is logged of the original one, so it can be obfuscated after the connection
+     * is released. Must be taken once the original body was decoded.
+     */
+    public Response snapshot(){
+        return snapshot.get();
+    }
+
     @Override
     public String toString() {
-        return this.obfuscated.toString();
+        return getObfuscated().toString();
     }
 }
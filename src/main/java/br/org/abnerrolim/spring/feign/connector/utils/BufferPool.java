@@ -0,0 +1,118 @@
+package br.org.abnerrolim.spring.feign.connector.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded, thread-safe pool of scratch byte arrays grouped in power of two size classes. Arrays bigger than the
+ * largest class, or released when their class is full, are left to the garbage collector.
+ */
+public final class BufferPool {
+
+    private static final int MIN_CLASS_SHIFT = 10;
+    private static final BufferPool SHARED = new BufferPool(1024 * 1024, 16);
+
+    private final Queue<byte[]>[] classes;
+    private final AtomicInteger[] pooled;
+    private final int maxPerClass;
+    private final int maxBufferSize;
+
+    /**
+     * @param maxBufferSize biggest pooled array, rounded up to a power of two and at least 1KB.
+     * @param maxPerClass   max arrays kept for each size class.
+     */
+    @SuppressWarnings("unchecked")
+    public BufferPool(int maxBufferSize, int maxPerClass) {
+        if (maxBufferSize <= 0 || maxPerClass <= 0)
+            throw new IllegalArgumentException("Buffer pool sizes must be positive");
+        int count = Math.max(0, shiftOf(maxBufferSize) - MIN_CLASS_SHIFT) + 1;
+        this.classes = (Queue<byte[]>[]) new Queue<?>[count];
+        this.pooled = new AtomicInteger[count];
+        for (int i = 0; i < count; i++) {
+            classes[i] = new ConcurrentLinkedQueue<>();
+            pooled[i] = new AtomicInteger();
+        }
+        this.maxPerClass = maxPerClass;
+        this.maxBufferSize = 1 << (count - 1 + MIN_CLASS_SHIFT);
+    }
+
+    public static BufferPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * @return an array of at least {@code minSize} bytes, with undefined content.
+     */
+    public byte[] acquire(int minSize) {
+        int index = classOf(minSize);
+        if (index >= classes.length)
+            return new byte[minSize];
+        byte[] buffer = classes[index].poll();
+        if (buffer == null)
+            return new byte[1 << (index + MIN_CLASS_SHIFT)];
+        pooled[index].decrementAndGet();
+        return buffer;
+    }
+
+    public void release(byte[] buffer) {
+        if (buffer == null || Integer.bitCount(buffer.length) != 1)
+            return;
+        int index = classOf(buffer.length);
+        if (index >= classes.length || (1 << (index + MIN_CLASS_SHIFT)) != buffer.length)
+            return;
+        if (pooled[index].incrementAndGet() <= maxPerClass)
+            classes[index].offer(buffer);
+        else
+            pooled[index].decrementAndGet();
+    }
+
+    /**
+     * Reads the whole stream. When {@code declaredLength} is known and not over the biggest pooled array the body is
+     * read straight into an array of that size, otherwise a pooled scratch array, growing as bytes arrive, is filled
+     * and copied once to an exact sized array.
+     */
+    public byte[] readFully(InputStream in, Integer declaredLength) throws IOException {
+        if (declaredLength != null && declaredLength >= 0 && declaredLength <= maxBufferSize) {
+            byte[] body = new byte[declaredLength];
+            int read = 0;
+            while (read < body.length) {
+                int n = in.read(body, read, body.length - read);
+                if (n < 0)
+                    return Arrays.copyOf(body, read);
+                read += n;
+            }
+            int next = in.read();
+            if (next < 0)
+                return body;
+            PooledByteArrayOutputStream rest = new PooledByteArrayOutputStream(this, body.length + 1024);
+            try {
+                rest.write(body, 0, body.length);
+                rest.write(next);
+                rest.readFrom(in);
+                return rest.toByteArray();
+            } finally {
+                rest.release();
+            }
+        }
+        // a declared length is not trusted past the biggest pooled array, the body may never get that long
+        PooledByteArrayOutputStream out = new PooledByteArrayOutputStream(this, declaredLength == null ? 0 : Math.min(declaredLength, maxBufferSize));
+        try {
+            out.readFrom(in);
+            return out.toByteArray();
+        } finally {
+            out.release();
+        }
+    }
+
+    private static int classOf(int size) {
+        return Math.max(0, shiftOf(size) - MIN_CLASS_SHIFT);
+    }
+
+    private static int shiftOf(int size) {
+        return size <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(size - 1);
+    }
+}
@@ -5,6 +5,8 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
@@ -13,8 +15,11 @@ import org.springframework.stereotype.Component;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.lang.reflect.Type;
 import java.text.SimpleDateFormat;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 @Component
 public class FeignJsonMapper {
@@ -22,6 +27,8 @@ public class FeignJsonMapper {
     public static final String JSON_DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ssZ";
     public static final String UTC = "UTC";
     private final ObjectMapper MAPPER;
+    private final ConcurrentMap<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Type, ObjectWriter> writers = new ConcurrentHashMap<>();
 
     public FeignJsonMapper() {
         MAPPER = initializeWithDefaultFeatures();
@@ -49,6 +56,41 @@ public class FeignJsonMapper {
         return MAPPER;
     }
 
+    /**
+     * Readers and writers are built once per type and cached, so they see the mapper configuration of their first use.
+     */
+    public ObjectReader readerFor(Type type) {
+        ObjectReader reader = readers.get(type);
+        return reader != null ? reader : readers.computeIfAbsent(type, t -> MAPPER.readerFor(MAPPER.constructType(t)));
+    }
+
+    public ObjectWriter writerFor(Type type) {
+        ObjectWriter writer = writers.get(type);
+        return writer != null ? writer : writers.computeIfAbsent(type, t -> MAPPER.writerFor(MAPPER.constructType(t)));
+    }
+
+    public <T> T readBytes(byte[] json, Type type) {
+        try {
+            if (json == null || json.length == 0) {
+                return null;
+            }
+            return readerFor(type).readValue(json);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public <T> byte[] writeBytes(T model) {
+        try {
+            if (model == null) {
+                return null;
+            }
+            return writerFor(model.getClass()).writeValueAsBytes(model);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     public <T> T read(Object json, Class<T> tClass) {
         return MAPPER.convertValue(json, tClass);
     }
@@ -58,7 +100,7 @@ public class FeignJsonMapper {
             if (json == null || json.isEmpty()) {
                 return null;
             }
-            return MAPPER.readValue(json, tClass);
+            return readerFor(tClass).readValue(json);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -69,7 +111,7 @@ public class FeignJsonMapper {
             if (stream == null) {
                 return null;
             }
-            return MAPPER.readValue(stream, tClass);
+            return readerFor(tClass).readValue(stream);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -80,7 +122,7 @@ public class FeignJsonMapper {
             if (reader == null) {
                 return null;
             }
-            return MAPPER.readValue(reader, tClass);
+            return readerFor(tClass).readValue(reader);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -91,7 +133,7 @@ public class FeignJsonMapper {
             if (model == null) {
                 return null;
             }
-            return MAPPER.writeValueAsString(model);
+            return writerFor(model.getClass()).writeValueAsString(model);
         } catch (JsonProcessingException e) {
             throw new RuntimeException(e);
         }
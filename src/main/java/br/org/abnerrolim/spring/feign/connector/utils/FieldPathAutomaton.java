@@ -0,0 +1,238 @@
+package br.org.abnerrolim.spring.feign.connector.utils;
+
+import java.util.*;
+
+/**
+ * Immutable automaton compiled once from json field paths, deciding in a single traversal which values must be masked,
+ * regardless of how many paths were configured.
+ * <p>
+ * Supported path syntax:
+ * <ul>
+ * <li>{@code billingAddress.street}: dotted object fields starting at the root</li>
+ * <li>{@code items[*].document}: {@code [*]} steps into every item of an array</li>
+ * <li>{@code *.password}: {@code *} matches any single field name</li>
+ * <li>{@code **.password}: {@code **} matches zero or more fields or array items, at any depth</li>
+ * </ul>
+ */
+public final class FieldPathAutomaton {
+
+    private static final String ANY_ITEM = "[*]";
+    private static final String ANY_FIELD = "*";
+    private static final String ANY_DEPTH = "**";
+
+    private final State root;
+
+    private FieldPathAutomaton(State root) {
+        this.root = root;
+    }
+
+    public static FieldPathAutomaton compile(Collection<String> paths) {
+        Node nfaRoot = new Node(false);
+        if (paths != null) {
+            for (String path : paths)
+                add(nfaRoot, path);
+        }
+        return new FieldPathAutomaton(new Compiler(nfaRoot).compile());
+    }
+
+    public static FieldPathAutomaton compile(String... paths) {
+        return compile(Arrays.asList(paths));
+    }
+
+    public State root() {
+        return root;
+    }
+
+    public boolean isEmpty() {
+        return root.isDead();
+    }
+
+    private static void add(Node root, String path) {
+        if (path == null || path.isEmpty())
+            throw new IllegalArgumentException("Json field path must not be empty");
+        Node current = root;
+        for (String step : steps(path)) {
+            if (ANY_DEPTH.equals(step)) {
+                if (current.descendants == null)
+                    current.descendants = new Node(true);
+                current = current.descendants;
+            } else if (ANY_ITEM.equals(step)) {
+                if (current.anyItem == null)
+                    current.anyItem = new Node(false);
+                current = current.anyItem;
+            } else if (ANY_FIELD.equals(step)) {
+                if (current.anyField == null)
+                    current.anyField = new Node(false);
+                current = current.anyField;
+            } else {
+                current = current.fields.computeIfAbsent(step, k -> new Node(false));
+            }
+        }
+        if (current.loop)
+            throw new IllegalArgumentException(String.format("Json field path [%s] must not end with %s", path, ANY_DEPTH));
+        current.terminal = true;
+    }
+
+    private static List<String> steps(String path) {
+        List<String> steps = new ArrayList<>();
+        for (String segment : path.split("\\.", -1)) {
+            int bracket = segment.indexOf('[');
+            String name = bracket < 0 ? segment : segment.substring(0, bracket);
+            if (!name.isEmpty())
+                steps.add(name);
+            else if (bracket != 0)
+                throw new IllegalArgumentException(String.format("Json field path [%s] has an empty segment", path));
+            if (bracket >= 0) {
+                String items = segment.substring(bracket);
+                if (!items.replace(ANY_ITEM, "").isEmpty())
+                    throw new IllegalArgumentException(String.format("Json field path [%s] only supports %s array selectors", path, ANY_ITEM));
+                for (int i = 0; i < items.length(); i += ANY_ITEM.length())
+                    steps.add(ANY_ITEM);
+            }
+        }
+        return steps;
+    }
+
+    /**
+     * Deterministic automaton state. Transitions never return null: once no configured path can match anymore the
+     * {@link #isDead() dead} state is returned, so callers can copy the remaining subtree untouched.
+     */
+    public static final class State {
+
+        private static final State DEAD = new State(false);
+
+        private final boolean masked;
+        private Map<String, State> fields = Collections.emptyMap();
+        private State otherField = this;
+        private State item = this;
+
+        private State(boolean masked) {
+            this.masked = masked;
+        }
+
+        public State field(String name) {
+            State next = fields.get(name);
+            return next != null ? next : otherField;
+        }
+
+        public State item() {
+            return item;
+        }
+
+        public boolean isMasked() {
+            return masked;
+        }
+
+        public boolean isDead() {
+            return this == DEAD;
+        }
+    }
+
+    private static final class Node {
+        private final Map<String, Node> fields = new HashMap<>();
+        private final boolean loop;
+        private Node anyField;
+        private Node anyItem;
+        private Node descendants;
+        private boolean terminal;
+
+        private Node(boolean loop) {
+            this.loop = loop;
+        }
+    }
+
+    private static final class Compiler {
+        private final Node root;
+        private final Set<String> alphabet = new HashSet<>();
+        private final Set<Node> live = new HashSet<>();
+        private final Map<Set<Node>, State> states = new HashMap<>();
+        private final Deque<Set<Node>> pending = new ArrayDeque<>();
+
+        private Compiler(Node root) {
+            this.root = root;
+            collect(root);
+        }
+
+        private boolean collect(Node node) {
+            if (node == null)
+                return false;
+            alphabet.addAll(node.fields.keySet());
+            boolean isLive = node.terminal;
+            for (Node field : node.fields.values())
+                isLive |= collect(field);
+            isLive |= collect(node.anyField);
+            isLive |= collect(node.anyItem);
+            isLive |= collect(node.descendants);
+            if (isLive)
+                live.add(node);
+            return isLive;
+        }
+
+        private State compile() {
+            State start = stateOf(closure(Collections.singleton(root)));
+            while (!pending.isEmpty()) {
+                Set<Node> nodes = pending.pop();
+                State state = states.get(nodes);
+                State otherField = stateOf(closure(moveField(nodes, null)));
+                Map<String, State> fields = new HashMap<>();
+                for (String name : alphabet) {
+                    State next = stateOf(closure(moveField(nodes, name)));
+                    if (next != otherField)
+                        fields.put(name, next);
+                }
+                state.otherField = otherField;
+                state.item = stateOf(closure(moveItem(nodes)));
+                state.fields = fields.isEmpty() ? Collections.emptyMap() : fields;
+            }
+            return start;
+        }
+
+        private State stateOf(Set<Node> nodes) {
+            nodes.retainAll(live);
+            if (nodes.isEmpty())
+                return State.DEAD;
+            State state = states.get(nodes);
+            if (state == null) {
+                state = new State(nodes.stream().anyMatch(n -> n.terminal));
+                states.put(nodes, state);
+                pending.push(nodes);
+            }
+            return state;
+        }
+
+        private Set<Node> moveField(Set<Node> nodes, String name) {
+            Set<Node> next = new HashSet<>();
+            for (Node node : nodes) {
+                if (name != null && node.fields.containsKey(name))
+                    next.add(node.fields.get(name));
+                if (node.anyField != null)
+                    next.add(node.anyField);
+                if (node.loop)
+                    next.add(node);
+            }
+            return next;
+        }
+
+        private Set<Node> moveItem(Set<Node> nodes) {
+            Set<Node> next = new HashSet<>();
+            for (Node node : nodes) {
+                if (node.anyItem != null)
+                    next.add(node.anyItem);
+                if (node.loop)
+                    next.add(node);
+            }
+            return next;
+        }
+
+        private Set<Node> closure(Set<Node> nodes) {
+            Set<Node> closure = new HashSet<>();
+            Deque<Node> toVisit = new ArrayDeque<>(nodes);
+            while (!toVisit.isEmpty()) {
+                Node node = toVisit.pop();
+                if (closure.add(node) && node.descendants != null)
+                    toVisit.push(node.descendants);
+            }
+            return closure;
+        }
+    }
+}
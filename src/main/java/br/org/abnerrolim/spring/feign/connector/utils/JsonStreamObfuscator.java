@@ -0,0 +1,137 @@
+package br.org.abnerrolim.spring.feign.connector.utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.util.Collection;
+
+/**
+ * Single pass json obfuscation: tokens are copied from a {@link JsonParser} straight into a {@link JsonGenerator},
+ * masking configured fields on the fly, so no {@link com.fasterxml.jackson.databind.JsonNode} tree is ever built.
+ * Masking follows {@link StringObfuscationUtils#obfuscate(com.fasterxml.jackson.databind.JsonNode)}: text becomes
+ * "*", numbers become 0 and any other value (containers included) becomes null.
+ */
+public class JsonStreamObfuscator {
+
+    private final JsonFactory jsonFactory;
+    private final boolean indent;
+    private final FieldPathAutomaton fields;
+
+    public JsonStreamObfuscator(ObjectMapper objectMapper, FieldPathAutomaton fieldsToObfuscate) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.indent = objectMapper.isEnabled(SerializationFeature.INDENT_OUTPUT);
+        this.fields = fieldsToObfuscate;
+    }
+
+    public JsonStreamObfuscator(ObjectMapper objectMapper, Collection<String> fieldsToObfuscate) {
+        this(objectMapper, FieldPathAutomaton.compile(fieldsToObfuscate));
+    }
+
+    public String obfuscate(byte[] body) throws IOException {
+        return obfuscate(body, body.length, false);
+    }
+
+    /**
+     * Obfuscates the first {@code length} bytes of body. When {@code truncated} the body is expected to be cut at any
+     * point, so the masked prefix produced until the cut is returned instead of failing.
+     */
+    public String obfuscate(byte[] body, int length, boolean truncated) throws IOException {
+        StringWriter writer = new StringWriter(length);
+        obfuscate(body, length, truncated, jsonFactory.createGenerator(writer));
+        return writer.toString();
+    }
+
+    /**
+     * Same as {@link #obfuscate(byte[], int, boolean)} writing UTF-8 straight into {@code out}, which is left open.
+     */
+    public void obfuscate(byte[] body, int length, boolean truncated, OutputStream out) throws IOException {
+        obfuscate(jsonFactory, body, length, truncated, out);
+    }
+
+    /**
+     * Same as {@link #obfuscate(byte[], int, boolean, OutputStream)} for bodies written in another Jackson format
+     * (eg. Smile), read with {@code bodyFactory}. The output is always json.
+     */
+    public void obfuscate(JsonFactory bodyFactory, byte[] body, int length, boolean truncated, OutputStream out) throws IOException {
+        JsonGenerator generator = jsonFactory.createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        obfuscate(bodyFactory.createParser(body, 0, length), truncated, generator);
+    }
+
+    private void obfuscate(byte[] body, int length, boolean truncated, JsonGenerator output) throws IOException {
+        obfuscate(jsonFactory.createParser(body, 0, length), truncated, output);
+    }
+
+    private void obfuscate(JsonParser input, boolean truncated, JsonGenerator output) throws IOException {
+        try (JsonParser parser = input;
+             JsonGenerator generator = output) {
+            if (indent)
+                generator.useDefaultPrettyPrinter();
+            if (truncated)
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            try {
+                obfuscate(parser, generator);
+            } catch (JsonProcessingException e) {
+                if (!truncated)
+                    throw e;
+            }
+        }
+    }
+
+    public void obfuscate(JsonParser parser, JsonGenerator generator) throws IOException {
+        if (parser.nextToken() != null)
+            copy(parser, generator, fields.root());
+    }
+
+    private void copy(JsonParser parser, JsonGenerator generator, FieldPathAutomaton.State state) throws IOException {
+        if (state.isMasked()) {
+            mask(parser, generator);
+        } else if (state.isDead()) {
+            generator.copyCurrentStructure(parser);
+        } else if (parser.getCurrentToken() == JsonToken.START_OBJECT) {
+            generator.writeStartObject();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+                generator.writeFieldName(name);
+                copy(parser, generator, state.field(name));
+            }
+            generator.writeEndObject();
+        } else if (parser.getCurrentToken() == JsonToken.START_ARRAY) {
+            FieldPathAutomaton.State itemState = state.item();
+            generator.writeStartArray();
+            while (parser.nextToken() != JsonToken.END_ARRAY)
+                copy(parser, generator, itemState);
+            generator.writeEndArray();
+        } else {
+            generator.copyCurrentEvent(parser);
+        }
+    }
+
+    static void mask(JsonParser parser, JsonGenerator generator) throws IOException {
+        switch (parser.getCurrentToken()) {
+            case VALUE_STRING:
+                StringObfuscationUtils.mask(generator, parser.getTextLength());
+                break;
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                generator.writeNumber(0L);
+                break;
+            case START_OBJECT:
+            case START_ARRAY:
+                parser.skipChildren();
+                generator.writeNull();
+                break;
+            default:
+                generator.writeNull();
+        }
+    }
+}
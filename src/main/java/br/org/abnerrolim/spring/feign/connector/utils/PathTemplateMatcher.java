@@ -0,0 +1,98 @@
+package br.org.abnerrolim.spring.feign.connector.utils;
+
+import java.util.*;
+
+/**
+ * Segment trie of path templates such as {@code /v1/customer/${obfuscate}/book/ref/${value}}. A path is matched in a
+ * single pass over its segments without regular expressions; literal segments always take priority over
+ * {@code ${value}}/{@code ${obfuscate}} placeholders, so overlapping templates resolve deterministically.
+ */
+public final class PathTemplateMatcher {
+
+    public static final String VALUE = "${value}";
+    public static final String OBFUSCATE = "${obfuscate}";
+
+    private final Node root;
+
+    private PathTemplateMatcher(Node root) {
+        this.root = root;
+    }
+
+    public static PathTemplateMatcher compile(Collection<String> templates) {
+        Node root = new Node();
+        for (String template : templates) {
+            List<String> segments = split(template);
+            List<Integer> toObfuscate = new ArrayList<>();
+            Node current = root;
+            for (int i = 0; i < segments.size(); i++) {
+                String segment = segments.get(i);
+                if (OBFUSCATE.equals(segment))
+                    toObfuscate.add(i);
+                if (isPlaceholder(segment)) {
+                    if (current.placeholder == null)
+                        current.placeholder = new Node();
+                    current = current.placeholder;
+                } else {
+                    current = current.literals.computeIfAbsent(segment, k -> new Node());
+                }
+            }
+            if (current.segmentsToObfuscate == null)
+                current.segmentsToObfuscate = Collections.unmodifiableList(toObfuscate);
+        }
+        return new PathTemplateMatcher(root);
+    }
+
+    public boolean isEmpty() {
+        return root.literals.isEmpty() && root.placeholder == null && root.segmentsToObfuscate == null;
+    }
+
+    /**
+     * @return segment indexes (as in {@code path.split("/")}) to be obfuscated or empty when no template matches.
+     */
+    public Optional<List<Integer>> match(String path) {
+        if (isEmpty())
+            return Optional.empty();
+        return Optional.ofNullable(match(root, split(path), 0));
+    }
+
+    private static List<Integer> match(Node node, List<String> segments, int index) {
+        if (index == segments.size())
+            return node.segmentsToObfuscate;
+        Node literal = node.literals.get(segments.get(index));
+        if (literal != null) {
+            List<Integer> matched = match(literal, segments, index + 1);
+            if (matched != null)
+                return matched;
+        }
+        return node.placeholder == null ? null : match(node.placeholder, segments, index + 1);
+    }
+
+    private static boolean isPlaceholder(String segment) {
+        return segment.contains(VALUE) || segment.contains(OBFUSCATE);
+    }
+
+    /**
+     * Same segments of {@code path.split("/")}: a leading empty segment is kept and trailing empty ones are dropped.
+     */
+    static List<String> split(String path) {
+        List<String> segments = new ArrayList<>();
+        int end = path.length();
+        while (end > 0 && path.charAt(end - 1) == '/')
+            end--;
+        int start = 0;
+        while (start <= end && end > 0) {
+            int slash = path.indexOf('/', start);
+            if (slash < 0 || slash > end)
+                slash = end;
+            segments.add(path.substring(start, slash));
+            start = slash + 1;
+        }
+        return segments;
+    }
+
+    private static final class Node {
+        private final Map<String, Node> literals = new HashMap<>();
+        private Node placeholder;
+        private List<Integer> segmentsToObfuscate;
+    }
+}
@@ -0,0 +1,106 @@
+package br.org.abnerrolim.spring.feign.connector.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Growable byte output backed by arrays of a {@link BufferPool}. {@link #close()} keeps the content available, so it
+ * can be handed to writers that close their target; the backing array returns to the pool only on {@link #release()}.
+ */
+public class PooledByteArrayOutputStream extends OutputStream {
+
+    private static final int DEFAULT_SIZE = 1024;
+    // some VMs reserve header words in an array
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private final BufferPool pool;
+    private byte[] buffer;
+    private int count;
+
+    public PooledByteArrayOutputStream(BufferPool pool, int sizeHint) {
+        this.pool = pool;
+        this.buffer = pool.acquire(sizeHint > 0 ? sizeHint : DEFAULT_SIZE);
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(count + 1);
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        ensureCapacity(count + len);
+        System.arraycopy(b, off, buffer, count, len);
+        count += len;
+    }
+
+    public void write(String value, Charset charset) {
+        byte[] bytes = value.getBytes(charset);
+        write(bytes, 0, bytes.length);
+    }
+
+    public void readFrom(InputStream in) throws IOException {
+        while (true) {
+            ensureCapacity(count + 1);
+            int n = in.read(buffer, count, buffer.length - count);
+            if (n < 0)
+                return;
+            count += n;
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Discards everything written after the first {@code size} bytes.
+     */
+    public void reset(int size) {
+        if (size < 0 || size > count)
+            throw new IllegalArgumentException("Invalid size " + size);
+        count = size;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, count);
+    }
+
+    @Override
+    public void close() {
+    }
+
+    public void release() {
+        if (buffer != null) {
+            pool.release(buffer);
+            buffer = null;
+            count = 0;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (buffer == null)
+            throw new IllegalStateException("Buffer already released");
+        if (capacity - buffer.length <= 0)
+            return;
+        byte[] bigger = pool.acquire(grownCapacity(capacity));
+        System.arraycopy(buffer, 0, bigger, 0, count);
+        pool.release(buffer);
+        buffer = bigger;
+    }
+
+    private int grownCapacity(int capacity) {
+        if (capacity < 0)
+            throw new OutOfMemoryError("Required buffer too large");
+        int grown = buffer.length << 1;
+        if (grown - capacity < 0)
+            grown = capacity;
+        if (grown - MAX_ARRAY_SIZE > 0)
+            grown = capacity > MAX_ARRAY_SIZE ? Integer.MAX_VALUE : MAX_ARRAY_SIZE;
+        return grown;
+    }
+}
@@ -0,0 +1,88 @@
+package br.org.abnerrolim.spring.feign.connector.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue backed by a power of two ring of slots. Each slot carries a sequence number telling whether
+ * it is free for the producer of a given turn or ready for the consumer, so producers and consumers only compete with
+ * a compare-and-set on their own cursor and never block each other.
+ */
+public final class RingBuffer<T> {
+
+    private final int mask;
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    public RingBuffer(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Ring buffer capacity must be positive");
+        // a single slot can't tell "filled at this turn" from "free for the next turn" apart
+        int size = Math.max(2, Integer.highestOneBit(capacity));
+        if (size < capacity)
+            size <<= 1;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++)
+            sequences.set(i, i);
+    }
+
+    /**
+     * @return false when the buffer is full.
+     */
+    public boolean offer(T element) {
+        if (element == null)
+            throw new NullPointerException("Ring buffer does not accept null elements");
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long distance = sequences.get(index) - position;
+            if (distance == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (distance < 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @return null when the buffer is empty.
+     */
+    public T poll() {
+        while (true) {
+            long position = head.get();
+            int index = (int) position & mask;
+            long distance = sequences.get(index) - (position + 1);
+            if (distance == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    T element = slots.get(index);
+                    slots.lazySet(index, null);
+                    sequences.set(index, position + mask + 1);
+                    return element;
+                }
+            } else if (distance < 0) {
+                return null;
+            }
+        }
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    public int size() {
+        return (int) Math.max(0, Math.min(capacity(), tail.get() - head.get()));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+}
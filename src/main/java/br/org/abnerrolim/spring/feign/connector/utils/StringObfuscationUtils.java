@@ -1,35 +1,67 @@
 package br.org.abnerrolim.spring.feign.connector.utils;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.*;
-import io.vavr.Tuple;
-import io.vavr.Tuple3;
 
+import java.io.IOException;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class StringObfuscationUtils {
 
+    private static final char MASK_CHAR = '*';
+    private static final int MASK_BUFFER_SIZE = 256;
+    private static final char[] MASK_BUFFER = new char[MASK_BUFFER_SIZE];
+    private static final String[] MASKS = new String[MASK_BUFFER_SIZE + 1];
+    private static final int MAX_CACHED_AUTOMATA = 256;
+    private static final ConcurrentMap<List<String>, FieldPathAutomaton> AUTOMATA = new ConcurrentHashMap<>();
+
+    static {
+        Arrays.fill(MASK_BUFFER, MASK_CHAR);
+    }
+
     private StringObfuscationUtils(){}
 
     public static String partialObfuscate(String raw){
-        if(Objects.isNull(raw))
+        if(Objects.isNull(raw) || raw.length() <= 2)
             return raw;
-        Tuple3<String, String, Integer> segments = strategy(raw);
-        return segments._1 + String.join("",Collections.nCopies(segments._3, "*")) + segments._2;
+        int length = raw.length();
+        int suffix = length > 7 ? 2 : 0;
+        StringBuilder builder = new StringBuilder(length)
+                .append(raw, 0, 2);
+        mask(builder, length - 2 - suffix);
+        return builder.append(raw, length - suffix, length).toString();
     }
 
-    private static Tuple3<String, String, Integer> strategy(String raw){
-        if(raw.length() > 7){
-            String prefix = raw.substring(0, 2);
-            String sufix = raw.substring((raw.length()-2), raw.length());
-            return Tuple.of(prefix, sufix, (raw.length()-4));
-        }else if(raw.length() > 2){
-            String prefix = raw.substring(0, 2);
-            String sufix = "";
-            return Tuple.of(prefix, sufix, (raw.length()-2));
-        }else{
-            return Tuple.of(raw, "", 0);
+    public static StringBuilder mask(StringBuilder builder, int size){
+        int remaining = size;
+        while (remaining > 0) {
+            int chunk = Math.min(remaining, MASK_BUFFER_SIZE);
+            builder.append(MASK_BUFFER, 0, chunk);
+            remaining -= chunk;
+        }
+        return builder;
+    }
+
+    public static void mask(char[] destination, int offset, int size){
+        int remaining = size;
+        while (remaining > 0) {
+            int chunk = Math.min(remaining, MASK_BUFFER_SIZE);
+            System.arraycopy(MASK_BUFFER, 0, destination, offset + size - remaining, chunk);
+            remaining -= chunk;
+        }
+    }
+
+    public static void mask(JsonGenerator generator, int size) throws IOException {
+        if (size <= MASK_BUFFER_SIZE) {
+            generator.writeString(MASK_BUFFER, 0, size);
+        } else {
+            char[] mask = new char[size];
+            mask(mask, 0, size);
+            generator.writeString(mask, 0, size);
         }
     }
 
@@ -41,8 +73,15 @@ public class StringObfuscationUtils {
     }
 
     public static String obfuscate(String value){
-        int size = value != null && !value.isEmpty() ? value.length() : 0;
-        return String.join("",Collections.nCopies(size, "*"));
+        int size = value != null ? value.length() : 0;
+        if (size > MASK_BUFFER_SIZE)
+            return mask(new StringBuilder(size), size).toString();
+        String mask = MASKS[size];
+        if (mask == null) {
+            mask = new String(MASK_BUFFER, 0, size);
+            MASKS[size] = mask;
+        }
+        return mask;
     }
 
     public static JsonNode obfuscate(JsonNode jsonNode){
@@ -59,53 +98,82 @@ public class StringObfuscationUtils {
     }
 
     public static ObjectNode obfuscate(ObjectNode rootNode, String field){
-        if(!rootNode.at(fieldToJsonPointer(field)).isMissingNode()) {
-            JsonNode obfuscate;
-            if (field.contains(".")) {
-                String fieldValue = field.substring(field.indexOf(".") + 1, field.length());
-                field = field.substring(0, field.indexOf("."));
-                ObjectNode nd = rootNode.get(field).deepCopy();
-                obfuscate = obfuscate(nd, fieldValue);
-            } else {
-                obfuscate = obfuscate(rootNode.get(field));
-            }
-            ObjectNode obj = rootNode.deepCopy();
-            obj.replace(field, obfuscate);
-            return obj;
-        }
-        return rootNode;
+        return (ObjectNode) obfuscate(rootNode, automaton(Collections.singletonList(field)));
     }
 
+    public static JsonNode obfuscate(JsonNode jsonNode, List<String> fieldsToObfuscate){
+        if(fieldsToObfuscate == null || fieldsToObfuscate.isEmpty())
+            return jsonNode;
+        return obfuscate(jsonNode, automaton(fieldsToObfuscate));
+    }
 
-    private static String fieldToJsonPointer(String field){
-        String path = "/".concat(field);
-        if(path.contains("."))
-            path = path.replaceAll("\\.","/");
-        return path;
+    public static JsonNode obfuscate(JsonNode jsonNode, FieldPathAutomaton fieldsToObfuscate){
+        return obfuscate(jsonNode, fieldsToObfuscate.root());
     }
 
-    public static JsonNode obfuscate(JsonNode jsonNode, List<String> fieldsToObfuscate){
-        if(fieldsToObfuscate == null || fieldsToObfuscate.isEmpty() || !jsonNode.isObject())
+    /**
+     * Compiled automaton of {@code paths}, cached while there are few distinct path lists.
+     */
+    private static FieldPathAutomaton automaton(List<String> paths){
+        FieldPathAutomaton automaton = AUTOMATA.get(paths);
+        if(automaton == null){
+            automaton = FieldPathAutomaton.compile(paths);
+            if(AUTOMATA.size() < MAX_CACHED_AUTOMATA)
+                AUTOMATA.putIfAbsent(List.copyOf(paths), automaton);
+        }
+        return automaton;
+    }
+
+    /**
+     * Copies only the containers holding a masked value, so a node without fields to mask is returned as is.
+     */
+    private static JsonNode obfuscate(JsonNode jsonNode, FieldPathAutomaton.State state){
+        if(state.isDead())
             return jsonNode;
-        ObjectNode node = jsonNode.deepCopy();
-        for(String st : fieldsToObfuscate){
-            node = obfuscate(node, st);
+        if(state.isMasked())
+            return obfuscate(jsonNode);
+        if(jsonNode.isObject()){
+            ObjectNode copy = null;
+            Iterator<Map.Entry<String, JsonNode>> fields = jsonNode.fields();
+            while (fields.hasNext()){
+                Map.Entry<String, JsonNode> field = fields.next();
+                JsonNode obfuscated = obfuscate(field.getValue(), state.field(field.getKey()));
+                if(obfuscated != field.getValue()){
+                    if(copy == null)
+                        copy = (ObjectNode) JsonNodeFactory.instance.objectNode().setAll((ObjectNode) jsonNode);
+                    copy.set(field.getKey(), obfuscated);
+                }
+            }
+            return copy != null ? copy : jsonNode;
+        }
+        if(jsonNode.isArray()){
+            ArrayNode copy = null;
+            FieldPathAutomaton.State itemState = state.item();
+            for(int i = 0; i < jsonNode.size(); i++){
+                JsonNode item = jsonNode.get(i);
+                JsonNode obfuscated = obfuscate(item, itemState);
+                if(obfuscated != item){
+                    if(copy == null)
+                        copy = JsonNodeFactory.instance.arrayNode(jsonNode.size()).addAll((ArrayNode) jsonNode);
+                    copy.set(i, obfuscated);
+                }
+            }
+            return copy != null ? copy : jsonNode;
         }
-        return node;
+        return jsonNode;
     }
 
     public static String obfuscate(URL url, List<Integer> pathSegmentsToObfuscate){
-        StringBuffer strBuff = new StringBuffer(url.getProtocol()).append("://").append(url.getAuthority());
+        StringBuilder builder = new StringBuilder(url.getProtocol()).append("://").append(url.getAuthority());
         String path = url.getPath();
         String[] rawSegments = path.split("/");
-        String segmentValue = "";
         for (int i = 0; i < rawSegments.length; i++) {
-            segmentValue = rawSegments[i];
-            if(pathSegmentsToObfuscate.contains(i)){
-                segmentValue = StringObfuscationUtils.obfuscate(segmentValue);
-            }
-            strBuff.append("/").append(segmentValue);
+            builder.append("/");
+            if(pathSegmentsToObfuscate.contains(i))
+                mask(builder, rawSegments[i].length());
+            else
+                builder.append(rawSegments[i]);
         }
-        return strBuff.toString();
+        return builder.toString();
     }
 }
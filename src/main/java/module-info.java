@@ -4,12 +4,17 @@ open module br.org.abnerrolim.spring.feign.connector{
     requires feign.core;
     requires feign.httpclient;
     requires feign.jackson;
+    requires org.apache.httpcomponents.httpclient;
 
     requires jackson.annotations;
     requires com.fasterxml.jackson.databind;
     requires com.fasterxml.jackson.core;
     requires com.fasterxml.jackson.datatype.jsr310;
     requires com.fasterxml.jackson.datatype.jdk8;
+    requires static com.fasterxml.jackson.dataformat.smile;
+    requires static com.fasterxml.jackson.dataformat.cbor;
+    requires static reactor.core;
+    requires static org.reactivestreams;
 
     requires spring.web;
     requires spring.context;
@@ -19,10 +24,13 @@ open module br.org.abnerrolim.spring.feign.connector{
 
     requires slf4j.api;
 
+    requires java.xml;
+
     requires org.apache.commons.io;
 
     requires io.vavr;
 
     exports br.org.abnerrolim.spring.feign.connector;
     exports br.org.abnerrolim.spring.feign.connector.obfuscate;
+    exports br.org.abnerrolim.spring.feign.connector.logging;
 }
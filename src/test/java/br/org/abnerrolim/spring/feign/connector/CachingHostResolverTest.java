@@ -0,0 +1,158 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.CoreMatchers.*;
+
+public class CachingHostResolverTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger resolutions = new AtomicInteger();
+    private final List<Runnable> refreshes = new ArrayList<>();
+    private volatile boolean failing;
+
+    private CachingHostResolver.Builder builder;
+
+    @Before
+    public void init() {
+        builder = CachingHostResolver.builder(() -> {
+            if (failing)
+                throw new IllegalStateException("Registry down");
+            return "http://tenant-" + resolutions.incrementAndGet() + ".com";
+        })
+                .ttl(Duration.ofSeconds(10))
+                .refreshAhead(Duration.ofSeconds(2))
+                .refreshExecutor(refreshes::add)
+                .nanoClock(now::get);
+    }
+
+    @Test
+    public void shouldResolveOnceWithinTtl() {
+        CachingHostResolver resolver = builder.build();
+
+        Assert.assertThat(resolver.getHost(), is("http://tenant-1.com"));
+        advanceSeconds(7);
+        Assert.assertThat(resolver.getHost(), is("http://tenant-1.com"));
+        Assert.assertThat(resolutions.get(), is(1));
+        Assert.assertThat(refreshes.isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldRefreshAheadInBackgroundKeepingCachedHost() {
+        CachingHostResolver resolver = builder.build();
+        resolver.getHost();
+
+        advanceSeconds(9);
+        Assert.assertThat(resolver.getHost(), is("http://tenant-1.com"));
+        Assert.assertThat(resolver.getHost(), is("http://tenant-1.com"));
+        Assert.assertThat(refreshes.size(), is(1));
+
+        refreshes.get(0).run();
+        Assert.assertThat(resolver.getHost(), is("http://tenant-2.com"));
+        advanceSeconds(5);
+        Assert.assertThat(resolver.getHost(), is("http://tenant-2.com"));
+        Assert.assertThat(resolutions.get(), is(2));
+    }
+
+    @Test
+    public void shouldResolveOnCallerAfterExpiration() {
+        CachingHostResolver resolver = builder.build();
+        resolver.getHost();
+
+        advanceSeconds(10);
+
+        Assert.assertThat(resolver.getHost(), is("http://tenant-2.com"));
+        Assert.assertThat(refreshes.isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldKeepExpiredHostForOtherCallersWhileOneResolves() throws Exception {
+        CountDownLatch resolving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CachingHostResolver resolver = CachingHostResolver.builder(() -> {
+            if (resolutions.incrementAndGet() > 1) {
+                resolving.countDown();
+                await(release);
+            }
+            return "http://tenant-" + resolutions.get() + ".com";
+        })
+                .ttl(Duration.ofSeconds(10))
+                .nanoClock(now::get)
+                .build();
+        resolver.getHost();
+        advanceSeconds(10);
+
+        AtomicReference<String> resolved = new AtomicReference<>();
+        Thread caller = new Thread(() -> resolved.set(resolver.getHost()));
+        caller.start();
+        Assert.assertThat(resolving.await(5, TimeUnit.SECONDS), is(true));
+
+        Assert.assertThat(resolver.getHost(), is("http://tenant-1.com"));
+        release.countDown();
+        caller.join();
+        Assert.assertThat(resolved.get(), is("http://tenant-2.com"));
+        Assert.assertThat(resolver.getHost(), is("http://tenant-2.com"));
+    }
+
+    @Test
+    public void shouldUseStaleHostWhileResolverFails() {
+        CachingHostResolver resolver = builder.staleIfError(Duration.ofSeconds(30)).build();
+        resolver.getHost();
+        failing = true;
+
+        advanceSeconds(9);
+        resolver.getHost();
+        refreshes.get(0).run();
+        advanceSeconds(20);
+
+        Assert.assertThat(resolver.getHost(), is("http://tenant-1.com"));
+        failing = false;
+        Assert.assertThat(resolver.getHost(), is("http://tenant-2.com"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldFailAfterStaleWindow() {
+        CachingHostResolver resolver = builder.staleIfError(Duration.ofSeconds(30)).build();
+        resolver.getHost();
+        failing = true;
+
+        advanceSeconds(40);
+
+        resolver.getHost();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldFailWithoutStaleHost() {
+        failing = true;
+
+        builder.staleIfError(Duration.ofSeconds(30)).build().getHost();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectRefreshAheadNotShorterThanTtl() {
+        builder.refreshAhead(Duration.ofSeconds(10)).build();
+    }
+
+    private void advanceSeconds(long seconds) {
+        now.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import br.org.abnerrolim.spring.feign.connector.utils.FeignJsonMapper;
+import feign.Feign;
+import feign.InvocationHandlerFactory;
+import feign.RequestLine;
+import feign.Response;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.CoreMatchers.*;
+
+public class CallContextTest {
+
+    interface StubClient {
+        @RequestLine("GET /v1/code")
+        String code();
+
+        @RequestLine("GET /v1/code")
+        ClientResponse<String> codeResponse();
+
+        @RequestLine("GET /v1/code")
+        CompletableFuture<ClientResponse<String>> codeResponseAsync();
+
+        @RequestLine("GET /v1/code")
+        CompletableFuture<String> codeAsync();
+    }
+
+    @Test
+    public void shouldExposeMethodKeyToDecoderDuringCall() {
+        AtomicReference<String> decodedMethodKey = new AtomicReference<>();
+        StubClient client = Feign.builder()
+                .client((request, options) -> Response.builder()
+                        .status(200)
+                        .reason("OK")
+                        .headers(Collections.emptyMap())
+                        .request(request)
+                        .body("code".getBytes())
+                        .build())
+                .decoder((response, type) -> {
+                    decodedMethodKey.set(CallContext.methodKey());
+                    return "decoded";
+                })
+                .invocationHandlerFactory(CallContext.factory(new InvocationHandlerFactory.Default()))
+                .target(StubClient.class, "http://localhost:8999");
+
+        Assert.assertThat(client.code(), is("decoded"));
+        Assert.assertThat(decodedMethodKey.get(), is("StubClient#code()"));
+        Assert.assertThat(CallContext.current(), is(nullValue()));
+    }
+
+    @Test
+    public void shouldReturnErrorsOfClientResponseMethodsAsClientResponse() {
+        StubClient client = Feign.builder()
+                .client((request, options) -> Response.builder()
+                        .status(422)
+                        .reason("Unprocessable")
+                        .headers(Collections.emptyMap())
+                        .request(request)
+                        .body("".getBytes())
+                        .build())
+                .errorDecoder(new ClientResponseErrorDecoder(new FeignJsonMapper(), "ERR", "Test"))
+                .invocationHandlerFactory(CallContext.factory(new InvocationHandlerFactory.Default()))
+                .target(StubClient.class, "http://localhost:8999");
+
+        ClientResponse<String> response = client.codeResponse();
+
+        Assert.assertThat(response.isError(), is(true));
+        Assert.assertThat(response.getHttpStatus().get(), is(422));
+        Assert.assertThat(response.getError().getCode(), is("ERR-422"));
+    }
+
+    @Test
+    public void shouldRunFutureMethodsOnAsyncExecutor() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "async-test"));
+        AtomicReference<String> decodingThread = new AtomicReference<>();
+        AtomicReference<String> decodedMethodKey = new AtomicReference<>();
+        try {
+            StubClient client = Feign.builder()
+                    .client((request, options) -> Response.builder()
+                            .status(200)
+                            .reason("OK")
+                            .headers(Collections.emptyMap())
+                            .request(request)
+                            .body("code".getBytes())
+                            .build())
+                    .decoder(new ClientResponseDecoder((response, type) -> {
+                        decodingThread.set(Thread.currentThread().getName());
+                        decodedMethodKey.set(CallContext.methodKey());
+                        return "decoded";
+                    }, "Test"))
+                    .invocationHandlerFactory(CallContext.factory(new InvocationHandlerFactory.Default(), executor))
+                    .target(StubClient.class, "http://localhost:8999");
+
+            ClientResponse<String> response = client.codeResponseAsync().get(5, TimeUnit.SECONDS);
+
+            Assert.assertThat(response.get(), is("decoded"));
+            Assert.assertThat(decodingThread.get(), is("async-test"));
+            Assert.assertThat(decodedMethodKey.get(), is("StubClient#codeResponseAsync()"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldRunFutureMethodsOnConnectorPoolWithoutAsyncExecutor() throws Exception {
+        AtomicReference<String> decodingThread = new AtomicReference<>();
+        StubClient client = Feign.builder()
+                .client((request, options) -> Response.builder()
+                        .status(200)
+                        .reason("OK")
+                        .headers(Collections.emptyMap())
+                        .request(request)
+                        .body("code".getBytes())
+                        .build())
+                .decoder(new ClientResponseDecoder((response, type) -> {
+                    decodingThread.set(Thread.currentThread().getName());
+                    return "decoded";
+                }, "Test"))
+                .invocationHandlerFactory(CallContext.factory(new InvocationHandlerFactory.Default()))
+                .target(StubClient.class, "http://localhost:8999");
+
+        Assert.assertThat(client.codeAsync().get(5, TimeUnit.SECONDS), is("decoded"));
+        Assert.assertThat(decodingThread.get(), startsWith("feign-connector-async-"));
+    }
+
+    @Test
+    public void shouldCompleteFutureMethodsWithErrors() throws Exception {
+        StubClient client = Feign.builder()
+                .client((request, options) -> Response.builder()
+                        .status(404)
+                        .reason("Not Found")
+                        .headers(Collections.emptyMap())
+                        .request(request)
+                        .body("".getBytes())
+                        .build())
+                .errorDecoder(new ClientResponseErrorDecoder(new FeignJsonMapper(), "ERR", "Test"))
+                .invocationHandlerFactory(CallContext.factory(new InvocationHandlerFactory.Default(), Runnable::run))
+                .target(StubClient.class, "http://localhost:8999");
+
+        ClientResponse<String> response = client.codeResponseAsync().get(5, TimeUnit.SECONDS);
+        Assert.assertThat(response.isNotFound(), is(true));
+
+        CompletableFuture<String> failed = client.codeAsync();
+        Assert.assertThat(failed.isCompletedExceptionally(), is(true));
+        try {
+            failed.get();
+            Assert.fail("Future should fail");
+        } catch (ExecutionException e) {
+            Assert.assertThat(e.getCause(), instanceOf(ClientResponseErrorDecoder.ClientResponseException.class));
+        }
+    }
+}
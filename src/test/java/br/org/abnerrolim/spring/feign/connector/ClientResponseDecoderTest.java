@@ -1,24 +1,39 @@
 package br.org.abnerrolim.spring.feign.connector;
 
+import br.org.abnerrolim.spring.feign.connector.logging.LogSampling;
+import br.org.abnerrolim.spring.feign.connector.obfuscate.HttpObfuscator;
+import br.org.abnerrolim.spring.feign.connector.obfuscate.NoneHttpObfuscator;
+import br.org.abnerrolim.spring.feign.connector.obfuscate.RequestWrapper;
+import br.org.abnerrolim.spring.feign.connector.obfuscate.ResponseWrapper;
 import br.org.abnerrolim.spring.feign.connector.utils.FeignJsonMapper;
 import br.org.abnerrolim.spring.feign.connector.utils.ParameterizedTypeImpl;
 import feign.Request;
+import feign.RequestLine;
 import feign.Response;
 import feign.jackson.JacksonDecoder;
+import org.apache.commons.io.IOUtils;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.http.ResponseEntity;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.nio.charset.Charset;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static org.hamcrest.CoreMatchers.*;
 
 public class ClientResponseDecoderTest {
 
+    interface StubClient {
+        @RequestLine("GET /v1/objects")
+        Stream<ObjectResponse> objects();
+    }
+
     private FeignJsonMapper jsonMapper;
     private ClientResponseDecoder decoder;
 
@@ -38,7 +53,7 @@ public class ClientResponseDecoderTest {
         ObjectResponse objectResponse = new ObjectResponse();
         String body = jsonMapper.write(objectResponse);
         Request request = Request.create(
-                "GET",
+                Request.HttpMethod.GET,
                 "http://www.com.br:8999/v1/secret-code/230329324/public-code/243143DadeE/",
                 headers,
                 body.getBytes(),
@@ -72,7 +87,7 @@ public class ClientResponseDecoderTest {
         ObjectResponse objectResponse = new ObjectResponse();
         String body = jsonMapper.write(objectResponse);
         Request request = Request.create(
-                "GET",
+                Request.HttpMethod.GET,
                 "http://www.com.br:8999/v1/secret-code/230329324/public-code/243143DadeE/",
                 headers,
                 body.getBytes(),
@@ -108,7 +123,7 @@ public class ClientResponseDecoderTest {
         ObjectResponse objectResponse = new ObjectResponse();
         String body = jsonMapper.write(objectResponse);
         Request request = Request.create(
-                "GET",
+                Request.HttpMethod.GET,
                 "http://www.com.br:8999/v1/secret-code/230329324/public-code/243143DadeE/",
                 headers,
                 body.getBytes(),
@@ -138,7 +153,7 @@ public class ClientResponseDecoderTest {
         ObjectResponse objectResponse = new ObjectResponse();
         String body = jsonMapper.write(objectResponse);
         Request request = Request.create(
-                "GET",
+                Request.HttpMethod.GET,
                 "http://www.com.br:8999/v1/secret-code/230329324/public-code/243143DadeE/",
                 headers,
                 body.getBytes(),
@@ -166,6 +181,142 @@ public class ClientResponseDecoderTest {
 
     }
 
+    @Test
+    public void decodeStreamingLogsOnlyBoundedSideCopy() throws Exception{
+        List<ObjectResponse> objects = new ArrayList<>();
+        for (int i = 0; i < 200; i++)
+            objects.add(new ObjectResponse());
+        byte[] body = jsonMapper.write(objects).getBytes();
+        Request request = Request.create(Request.HttpMethod.GET, "http://www.com.br:8999/v1/objects", Collections.emptyMap(), null, Charset.defaultCharset());
+        Response response = Response.builder()
+                .headers(Collections.emptyMap())
+                .body(new ByteArrayInputStream(body), body.length)
+                .status(200)
+                .reason("OK")
+                .request(request)
+                .build();
+        List<Response> logged = new ArrayList<>();
+        HttpObfuscator recording = new HttpObfuscator() {
+            @Override
+            public RequestWrapper obfuscate(Request request) {
+                return new NoneHttpObfuscator().obfuscate(request);
+            }
+
+            @Override
+            public ResponseWrapper obfuscate(Response response) {
+                logged.add(response);
+                return new NoneHttpObfuscator().obfuscate(response);
+            }
+        };
+        ClientResponseDecoder streamingDecoder = new ClientResponseDecoder(new JacksonDecoder(jsonMapper.getMAPPER()), recording, "Prefix", null, LogSampling.always(), 128);
+
+        Type listType = ParameterizedTypeImpl.make(List.class, new Type[]{ObjectResponse.class}, null);
+        Object decoded = streamingDecoder.decode(response, listType);
+
+        Assert.assertThat(decoded, equalTo(objects));
+        Assert.assertThat(logged.size(), is(1));
+        Assert.assertThat(logged.get(0).body().length(), is(body.length));
+        Assert.assertThat(IOUtils.toByteArray(logged.get(0).body().asInputStream()).length, is(128));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void decodeLazyStreamLogsBoundedPrefixWhenClosed() throws Exception{
+        List<ObjectResponse> objects = new ArrayList<>();
+        for (int i = 0; i < 200; i++)
+            objects.add(new ObjectResponse());
+        byte[] body = jsonMapper.write(objects).getBytes();
+        Request request = Request.create(Request.HttpMethod.GET, "http://www.com.br:8999/v1/objects", Collections.emptyMap(), null, Charset.defaultCharset());
+        Response response = Response.builder()
+                .headers(Collections.emptyMap())
+                .body(new ByteArrayInputStream(body), body.length)
+                .status(200)
+                .reason("OK")
+                .request(request)
+                .build();
+        List<Response> logged = new ArrayList<>();
+        HttpObfuscator recording = new HttpObfuscator() {
+            @Override
+            public RequestWrapper obfuscate(Request request) {
+                return new NoneHttpObfuscator().obfuscate(request);
+            }
+
+            @Override
+            public ResponseWrapper obfuscate(Response response) {
+                logged.add(response);
+                return new NoneHttpObfuscator().obfuscate(response);
+            }
+        };
+        ClientResponseDecoder lazyDecoder = new ClientResponseDecoder(new FeignJsonDecoder(jsonMapper), recording, "Prefix", null, LogSampling.always(), 128);
+
+        Type clientResponseType = ParameterizedTypeImpl.make(ClientResponse.class,
+                new Type[]{ParameterizedTypeImpl.make(Stream.class, new Type[]{ObjectResponse.class}, null)}, null);
+        ClientResponse<Stream<ObjectResponse>> decoded = (ClientResponse<Stream<ObjectResponse>>) lazyDecoder.decode(response, clientResponseType);
+
+        Assert.assertThat(decoded.isError(), is(false));
+        Assert.assertThat(logged.isEmpty(), is(true));
+        try (Stream<ObjectResponse> stream = decoded.get()) {
+            Assert.assertThat(stream.count(), is(200L));
+        }
+        Assert.assertThat(logged.size(), is(1));
+        Assert.assertThat(logged.get(0).body().length(), is(body.length));
+        Assert.assertThat(IOUtils.toByteArray(logged.get(0).body().asInputStream()).length, is(128));
+    }
+
+
+    @Test
+    public void streamMethodOfBuiltClientShouldReadBodyAfterCallReturns() {
+        List<ObjectResponse> objects = new ArrayList<>();
+        for (int i = 0; i < 2000; i++)
+            objects.add(new ObjectResponse());
+        // well over the 8000 bytes jackson reads ahead, so the stream reads the connection after the call returns
+        byte[] body = jsonMapper.write(objects).getBytes();
+        StubClient client = new FeignConnectorConfigHelper(1000, 5000, "Test", "TST").config()
+                .feignBuilder()
+                .client((request, options) -> Response.builder()
+                        .status(200)
+                        .reason("OK")
+                        .headers(Collections.emptyMap())
+                        .request(request)
+                        .body(new ConnectionInputStream(body), body.length)
+                        .build())
+                .target(StubClient.class, "http://www.com.br:8999");
+
+        try (Stream<ObjectResponse> stream = client.objects()) {
+            Assert.assertThat(stream.count(), is(2000L));
+        }
+    }
+
+    /**
+     * Fails reads after close, as a connection stream does.
+     */
+    private static class ConnectionInputStream extends ByteArrayInputStream {
+        private boolean closed;
+
+        private ConnectionInputStream(byte[] body) {
+            super(body);
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            if (closed)
+                throw new IllegalStateException("Stream closed");
+            return super.read(b, off, len);
+        }
+
+        @Override
+        public synchronized int read() {
+            if (closed)
+                throw new IllegalStateException("Stream closed");
+            return super.read();
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+    }
 
     public static class ObjectResponse {
         public String name = "Secret Name";
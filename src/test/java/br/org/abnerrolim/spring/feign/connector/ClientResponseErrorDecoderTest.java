@@ -31,7 +31,7 @@ public class ClientResponseErrorDecoderTest {
         headers.put("content-type", Collections.singleton("application/json"));
 
         Request request = Request.create(
-                "GET",
+                Request.HttpMethod.GET,
                 "http://www.com.br:8999/v1/secret-code/230329324/public-code/243143DadeE/",
                 headers,
                 null,
@@ -55,6 +55,27 @@ public class ClientResponseErrorDecoderTest {
         Assert.assertThat(e.httpStatusResponse, equalTo(422));
     }
 
+    @Test
+    public void decodeBinaryCodecErrorResponse() throws Exception{
+        Map<String, Collection<String>> headers = new HashMap<>();
+        headers.put("content-type", Collections.singleton(BinaryCodec.CBOR.mediaType()));
+        Request request = Request.create(Request.HttpMethod.GET, "http://www.com.br:8999/v1/items/1", headers, null, Charset.defaultCharset());
+
+        java.io.ByteArrayOutputStream body = new java.io.ByteArrayOutputStream();
+        jsonMapper.getMAPPER().writeValue(BinaryCodec.CBOR.factory().createGenerator(body), new ObjectErrorResponse("CCC-0002", "Binary message", null));
+        Response response = Response.builder()
+                .headers(headers)
+                .body(body.toByteArray())
+                .status(422)
+                .reason("ERROR")
+                .request(request)
+                .build();
+
+        ClientResponseErrorDecoder.ClientResponseException e = errorDecoder.decode("GET", response);
+        Assert.assertThat(e.response.getCode(), equalTo("CCC-0002"));
+        Assert.assertThat(e.response.getMessage(), equalTo("Binary message"));
+    }
+
     @Test
     public void decodeStandardValidationFieldsResponse() throws Exception{
         Map<String, Collection<String>> headers = new HashMap<>();
@@ -64,7 +85,7 @@ public class ClientResponseErrorDecoderTest {
         headers.put("content-type", Collections.singleton("application/json"));
 
         Request request = Request.create(
-                "GET",
+                Request.HttpMethod.GET,
                 "http://www.com.br:8999/v1/secret-code/230329324/public-code/243143DadeE/",
                 headers,
                 null,
@@ -97,7 +118,7 @@ public class ClientResponseErrorDecoderTest {
         headers.put("content-type", Collections.singleton("application/json"));
 
         Request request = Request.create(
-                "GET",
+                Request.HttpMethod.GET,
                 "http://www.com.br:8999/v1/secret-code/230329324/public-code/243143DadeE/",
                 headers,
                 null,
@@ -129,7 +150,7 @@ public class ClientResponseErrorDecoderTest {
         headers.put("secret-collection", Arrays.asList("daklj2#$#@", "sdjloijh234"));
 
         Request request = Request.create(
-                "GET",
+                Request.HttpMethod.GET,
                 "http://www.com.br:8999/v1/secret-code/230329324/public-code/243143DadeE/",
                 headers,
                 null,
@@ -162,7 +183,7 @@ public class ClientResponseErrorDecoderTest {
         headers.put("content-type", Collections.singleton("application/json"));
 
         Request request = Request.create(
-                "GET",
+                Request.HttpMethod.GET,
                 "http://www.com.br:8999/v1/secret-code/230329324/public-code/243143DadeE/",
                 headers,
                 null,
@@ -196,7 +217,7 @@ public class ClientResponseErrorDecoderTest {
         headers.put("content-type", Collections.singleton("application/json"));
 
         Request request = Request.create(
-                "GET",
+                Request.HttpMethod.GET,
                 "http://www.com.br:8999/v1/secret-code/230329324/public-code/243143DadeE/",
                 headers,
                 null,
@@ -218,6 +239,66 @@ public class ClientResponseErrorDecoderTest {
         Assert.assertThat(e.response.getMessage(), notNullValue());
         Assert.assertThat(e.response.metadata().isEmpty(), is(true));
     }
+
+    @Test
+    public void decodeArrayResponseBindingOnlyFirstErrorWithMetadata() throws Exception{
+        Map<String, Collection<String>> headers = new HashMap<>();
+        headers.put("content-type", Collections.singleton("application/json"));
+        Request request = Request.create(Request.HttpMethod.GET, "http://www.com.br:8999/v1/items/1", headers, null, Charset.defaultCharset());
+        // everything after the first element is never parsed
+        String body = "[{\"code\":\"CCC-0003\",\"message\":\"First\",\"traceId\":\"abc\",\"detail\":{\"attempt\":2}}, not json";
+
+        Response response = Response.builder()
+                .headers(headers)
+                .body(body.getBytes())
+                .status(409)
+                .reason("ERROR")
+                .request(request)
+                .build();
+
+        ClientResponseErrorDecoder.ClientResponseException e = errorDecoder.decode("GET", response);
+        Assert.assertThat(e.response.getCode(), equalTo("CCC-0003"));
+        Assert.assertThat(e.response.getMessage(), equalTo("First"));
+        Assert.assertThat(e.response.metadata("traceId"), equalTo((Object) "abc"));
+        Assert.assertThat(((Map<?, ?>) e.response.metadata("detail")).get("attempt"), equalTo((Object) 2));
+    }
+
+    @Test
+    public void decodeToStacklessException() throws Exception{
+        Request request = Request.create(Request.HttpMethod.GET, "http://www.com.br:8999/v1/items/1", Collections.emptyMap(), null, Charset.defaultCharset());
+        Response response = Response.builder()
+                .headers(Collections.emptyMap())
+                .body(new byte[0])
+                .status(503)
+                .reason("Unavailable")
+                .request(request)
+                .build();
+
+        ClientResponseErrorDecoder.ClientResponseException e = errorDecoder.decode("GET", response);
+
+        Assert.assertThat(e.getStackTrace().length, is(0));
+        Assert.assertThat(e.response.getMessage(), equalTo("Unavailable"));
+    }
+
+    @Test
+    public void decodeTextErrorKeepingServerMessage() throws Exception{
+        Map<String, Collection<String>> headers = new HashMap<>();
+        headers.put("Content-Type", Collections.singleton("text/plain"));
+        Request request = Request.create(Request.HttpMethod.GET, "http://www.com.br:8999/v1/items/1", headers, null, Charset.defaultCharset());
+        Response response = Response.builder()
+                .headers(headers)
+                .body("Partner is under maintenance".getBytes())
+                .status(503)
+                .reason("Service Unavailable")
+                .request(request)
+                .build();
+
+        ClientResponseErrorDecoder.ClientResponseException e = errorDecoder.decode("GET", response);
+
+        Assert.assertThat(e.response.getCode(), equalTo("Prefix-503"));
+        Assert.assertThat(e.response.getMessage(), equalTo("Partner is under maintenance"));
+    }
+
     public static class ObjectErrorResponse {
 
         public ObjectErrorResponse(String code, String message, Map<String, List<String>> fields){
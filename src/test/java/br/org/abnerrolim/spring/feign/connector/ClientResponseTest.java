@@ -45,6 +45,18 @@ public class ClientResponseTest {
         Assert.assertTrue("Fold should return success response", res.fold(errorResponse -> false, success -> true));
     }
 
+    @Test
+    public void createOfAsync() throws Exception {
+        ErrorResponse error = ErrorResponse.of("CODE", "ERROR");
+
+        ClientResponse<String> success = ClientResponse.ofAsync(() -> returnT("value"), Runnable::run).get();
+        ClientResponse<String> failure = ClientResponse.ofAsync(() -> throwClientResponseException("value", "Message", error, 400), Runnable::run).get();
+
+        Assert.assertThat(success.get(), equalTo("value"));
+        Assert.assertThat(failure.isBadRequest(), is(true));
+        Assert.assertThat(failure.getError(), equalTo(error));
+    }
+
     @Test
     public void createErrorOf() throws IOException {
         ObjectTest expected = new ObjectTest();
@@ -0,0 +1,133 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import br.org.abnerrolim.spring.feign.connector.obfuscate.ConfigurableHttpObfuscator;
+import br.org.abnerrolim.spring.feign.connector.utils.FeignJsonMapper;
+import feign.Request;
+import feign.Response;
+import feign.Util;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.hamcrest.CoreMatchers.*;
+
+public class CompressingClientTest {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final String JSON = "{\"id\":1,\"name\":\"Compressed\"}";
+
+    private final AtomicReference<Request> sent = new AtomicReference<>();
+
+    @Test
+    public void shouldAdvertiseEncodingsAndDecompressGzip() throws Exception {
+        CompressingClient client = new CompressingClient(respond("gzip", gzip(JSON.getBytes(UTF8))));
+
+        Response response = client.execute(request(JSON.getBytes(UTF8)), new Request.Options());
+
+        Assert.assertThat(sent.get().headers().get("Accept-Encoding"), hasItem("gzip, deflate"));
+        Assert.assertThat(sent.get().headers().containsKey("Content-Encoding"), is(false));
+        Assert.assertThat(response.headers().containsKey("Content-Encoding"), is(false));
+        Assert.assertThat(response.headers().containsKey("Content-Length"), is(false));
+        Assert.assertThat(response.body().length(), is(nullValue()));
+        Assert.assertThat(Util.toString(response.body().asReader()), equalTo(JSON));
+    }
+
+    @Test
+    public void shouldDecompressZlibAndRawDeflate() throws Exception {
+        Response zlib = new CompressingClient(respond("deflate", deflate(JSON.getBytes(UTF8), false)))
+                .execute(request(null), new Request.Options());
+        Response raw = new CompressingClient(respond("deflate", deflate(JSON.getBytes(UTF8), true)))
+                .execute(request(null), new Request.Options());
+
+        Assert.assertThat(Util.toString(zlib.body().asReader()), equalTo(JSON));
+        Assert.assertThat(Util.toString(raw.body().asReader()), equalTo(JSON));
+    }
+
+    @Test
+    public void shouldReadEmptyCompressedBodyAsEmpty() throws Exception {
+        Response response = new CompressingClient(respond("gzip", new byte[0])).execute(request(null), new Request.Options());
+
+        Assert.assertThat(response.body().asInputStream().read(), is(-1));
+    }
+
+    @Test
+    public void shouldGzipOnlyRequestBodiesAboveThreshold() throws Exception {
+        byte[] body = JSON.getBytes(UTF8);
+        CompressingClient client = new CompressingClient(respond(null, body), body.length - 1);
+        Request request = request(body);
+
+        Response response = client.execute(request, new Request.Options());
+
+        Assert.assertThat(response.request(), sameInstance(request));
+        Assert.assertThat(sent.get().headers().get("Content-Encoding"), hasItem("gzip"));
+        Assert.assertThat(new String(Util.toByteArray(new GZIPInputStream(new ByteArrayInputStream(sent.get().body()))), UTF8), equalTo(JSON));
+
+        new CompressingClient(respond(null, body), body.length).execute(request(body), new Request.Options());
+
+        Assert.assertThat(sent.get().headers().containsKey("Content-Encoding"), is(false));
+        Assert.assertThat(sent.get().body(), equalTo(body));
+    }
+
+    @Test
+    public void shouldDecodeAndObfuscateCompressedResponse() throws Exception {
+        CompressingClient client = new CompressingClient(respond("gzip", gzip(JSON.getBytes(UTF8))));
+        ClientResponseDecoder decoder = new ClientResponseDecoder(new FeignJsonDecoder(new FeignJsonMapper()),
+                ConfigurableHttpObfuscator.builder().jsonBodyFields("name").build(), "Test");
+
+        Object decoded = decoder.decode(client.execute(request(null), new Request.Options()), Map.class);
+
+        Assert.assertThat(((Map<?, ?>) decoded).get("name"), equalTo((Object) "Compressed"));
+    }
+
+    private feign.Client respond(String encoding, byte[] body) {
+        return (request, options) -> {
+            sent.set(request);
+            Map<String, Collection<String>> headers = new HashMap<>();
+            headers.put("Content-Type", Collections.singletonList("application/json"));
+            headers.put("Content-Length", Collections.singletonList(String.valueOf(body.length)));
+            if (encoding != null)
+                headers.put("Content-Encoding", Collections.singletonList(encoding));
+            return Response.builder()
+                    .status(200)
+                    .reason("OK")
+                    .headers(headers)
+                    .request(request)
+                    .body(new ByteArrayInputStream(body), body.length)
+                    .build();
+        };
+    }
+
+    private static Request request(byte[] body) {
+        Map<String, Collection<String>> headers = new HashMap<>();
+        headers.put("Content-Type", Collections.singletonList("application/json"));
+        return Request.create(Request.HttpMethod.POST, "http://www.com.br:8999/v1/items", headers, body, body == null ? null : UTF8);
+    }
+
+    private static byte[] gzip(byte[] body) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] body, boolean raw) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflate = new DeflaterOutputStream(out, new Deflater(Deflater.DEFAULT_COMPRESSION, raw))) {
+            deflate.write(body);
+        }
+        return out.toByteArray();
+    }
+}
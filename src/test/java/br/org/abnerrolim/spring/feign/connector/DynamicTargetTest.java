@@ -64,4 +64,29 @@ public class DynamicTargetTest {
         assertThat(request.url(), equalTo(dynamicHostResolver.getHost()+path));
     }
 
+    @Test
+    public void applyKeepingQueryString() throws Exception {
+        RequestTemplate requestTemplate = new RequestTemplate();
+        requestTemplate.append("/myservice/search%20all")
+                .query("page", "2")
+                .query("tenant", "abc")
+                .method("GET");
+
+        DynamicTarget<String> d = new DynamicTarget<>(
+                String.class,
+                "Name",
+                "url",
+                dynamicHostResolver
+        );
+        Request request = d.apply(requestTemplate);
+        assertThat(request.url(), equalTo("http://www.google.com/myservice/search%20all?page=2&tenant=abc"));
+    }
+
+    @Test
+    public void rewriteUrl() throws Exception {
+        assertThat(DynamicTarget.rewriteUrl("https://new:8443", "http://old.com:80/v1/items", "?a=1"), equalTo("https://new:8443/v1/items?a=1"));
+        assertThat(DynamicTarget.rewriteUrl("https://new", "http://old.com", ""), equalTo("https://new"));
+        assertThat(DynamicTarget.rewriteUrl("https://new", "/v1/items", ""), equalTo("https://new/v1/items"));
+    }
+
 }
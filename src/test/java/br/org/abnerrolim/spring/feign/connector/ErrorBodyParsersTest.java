@@ -0,0 +1,104 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import br.org.abnerrolim.spring.feign.connector.utils.FeignJsonMapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.*;
+
+public class ErrorBodyParsersTest {
+
+    private final ErrorBodyParsers parsers = ErrorBodyParsers.defaults(new FeignJsonMapper());
+
+    @Test
+    public void shouldBindVendorJsonWithCharset() throws Exception {
+        ErrorResponse error = parsers.parse("application/vnd.partner.v2+json; charset=UTF-8", body("{\"code\":\"P-1\",\"message\":\"Vendor\",\"traceId\":\"t1\"}"));
+
+        Assert.assertThat(error.getCode(), equalTo("P-1"));
+        Assert.assertThat(error.getMessage(), equalTo("Vendor"));
+        Assert.assertThat(error.metadata("traceId"), equalTo((Object) "t1"));
+    }
+
+    @Test
+    public void shouldBindProblemDetails() throws Exception {
+        ErrorResponse error = parsers.parse("application/problem+json", body("{\"type\":\"https://example.com/probs/out-of-credit\","
+                + "\"title\":\"You do not have enough credit.\",\"detail\":\"Your balance is 30, but that costs 50.\",\"status\":403,\"balance\":30}"));
+
+        Assert.assertThat(error.getCode(), equalTo("https://example.com/probs/out-of-credit"));
+        Assert.assertThat(error.getMessage(), equalTo("Your balance is 30, but that costs 50."));
+        Assert.assertThat(error.metadata("balance"), equalTo((Object) 30));
+        Assert.assertThat(error.metadata("status"), equalTo((Object) 403));
+    }
+
+    @Test
+    public void shouldUseProblemTitleForBlankType() throws Exception {
+        ErrorResponse error = parsers.parse("application/problem+json", body("{\"type\":\"about:blank\",\"title\":\"Forbidden\"}"));
+
+        Assert.assertThat(error.getCode(), equalTo("Forbidden"));
+        Assert.assertThat(error.getMessage(), equalTo("Forbidden"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldBindXml() throws Exception {
+        ErrorResponse error = parsers.parse("application/xml", body("<?xml version=\"1.0\"?>"
+                + "<error><code>X-1</code><message>Xml error</message>"
+                + "<fields><age>Too young</age><age>Required</age><name>Required</name></fields>"
+                + "<trace><id>42</id></trace></error>"));
+
+        Assert.assertThat(error.getCode(), equalTo("X-1"));
+        Assert.assertThat(error.getMessage(), equalTo("Xml error"));
+        Assert.assertThat(error.getFields().get("age"), equalTo(Arrays.asList("Too young", "Required")));
+        Assert.assertThat(error.getFields().get("name"), equalTo(Collections.singletonList("Required")));
+        Assert.assertThat(((Map<String, Object>) error.metadata("trace")).get("id"), equalTo((Object) "42"));
+    }
+
+    @Test
+    public void shouldNotParseDeeplyNestedXml() throws Exception {
+        StringBuilder xml = new StringBuilder();
+        for (int i = 0; i < 100_000; i++)
+            xml.append("<a>");
+        for (int i = 0; i < 100_000; i++)
+            xml.append("</a>");
+
+        Assert.assertThat(parsers.parse("application/xml", body(xml.toString())), is(nullValue()));
+    }
+
+    @Test
+    public void shouldBindTextAsMessage() throws Exception {
+        ErrorResponse error = parsers.parse("text/plain;charset=ISO-8859-1", new ByteArrayInputStream("  Servi\u00e7o indispon\u00edvel\n".getBytes(Charset.forName("ISO-8859-1"))));
+
+        Assert.assertThat(error.getCode(), is(nullValue()));
+        Assert.assertThat(error.getMessage(), equalTo("Servi\u00e7o indispon\u00edvel"));
+    }
+
+    @Test
+    public void shouldIgnoreUnknownAndInvalidContentTypes() throws Exception {
+        Assert.assertThat(parsers.parse("image/png", body("{\"code\":\"C\"}")), is(nullValue()));
+        Assert.assertThat(parsers.parse("not a media type", body("{\"code\":\"C\"}")), is(nullValue()));
+        Assert.assertThat(parsers.parse(null, body("{\"code\":\"C\"}")), is(nullValue()));
+    }
+
+    @Test
+    public void shouldPreferRegisteredParsers() throws Exception {
+        ErrorBodyParsers custom = ErrorBodyParsers.builder(new FeignJsonMapper())
+                .parser("application/*+json", (body, mediaType) -> ErrorResponse.of("CUSTOM", mediaType.getSubtype()))
+                .build();
+
+        Assert.assertThat(custom.parse("application/vnd.partner+json", body("{}")).getMessage(), equalTo("vnd.partner+json"));
+        Assert.assertThat(custom.parse("application/json", body("{\"code\":\"JSON\"}")).getCode(), equalTo("JSON"));
+        Assert.assertThat(custom.supports("text/plain"), is(true));
+        Assert.assertThat(custom.supports("text/html"), is(false));
+    }
+
+    private static InputStream body(String body) {
+        return new ByteArrayInputStream(body.getBytes(Charset.forName("UTF-8")));
+    }
+}
@@ -0,0 +1,196 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import feign.Request;
+import feign.RetryableException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.hamcrest.CoreMatchers.*;
+
+public class FanOutTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void allShouldKeepOrderWithBoundedParallelism() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Supplier<Integer>> calls = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            int value = i;
+            calls.add(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(5);
+                running.decrementAndGet();
+                return value;
+            });
+        }
+
+        ClientResponse<List<Integer>> response = ClientResponse.all(calls, FanOut.on(executor).parallelism(3));
+
+        Assert.assertThat(response.isError(), is(false));
+        Assert.assertThat(response.get().size(), is(20));
+        Assert.assertThat(response.get().get(7), is(7));
+        Assert.assertThat(maxRunning.get() <= 3, is(true));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void allShouldFailFastKeepingItemErrors() {
+        AtomicBoolean interrupted = new AtomicBoolean();
+        CountDownLatch slowStarted = new CountDownLatch(1);
+        List<Supplier<String>> calls = Arrays.asList(
+                () -> {
+                    slowStarted.countDown();
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        interrupted.set(true);
+                    }
+                    return "slow";
+                },
+                () -> {
+                    await(slowStarted);
+                    throw error("NOT-FOUND", 404);
+                });
+
+        ClientResponse<List<String>> response = ClientResponse.all(calls, FanOut.on(executor));
+
+        Assert.assertThat(response.isNotFound(), is(true));
+        Assert.assertThat(response.getError().getCode(), is("NOT-FOUND"));
+        Map<Integer, ErrorResponse> errors = (Map<Integer, ErrorResponse>) response.getError().metadata(FanOut.ERRORS_METADATA);
+        Assert.assertThat(errors.keySet(), equalTo((Object) Collections.singleton(1)));
+        sleep(100);
+        Assert.assertThat(interrupted.get(), is(true));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void allShouldReportCallsOverDeadline() {
+        List<Supplier<String>> calls = Arrays.asList(
+                () -> "fast",
+                () -> {
+                    sleep(10_000);
+                    return "slow";
+                });
+
+        long start = System.nanoTime();
+        ClientResponse<List<String>> response = ClientResponse.all(calls, FanOut.on(executor).deadline(Duration.ofMillis(100)));
+
+        Assert.assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5_000, is(true));
+        Assert.assertThat(response.getHttpStatus().get(), is(504));
+        Assert.assertThat(response.getError().getCode(), is(FanOut.TIMEOUT_CODE));
+        Map<Integer, ErrorResponse> errors = (Map<Integer, ErrorResponse>) response.getError().metadata(FanOut.ERRORS_METADATA);
+        Assert.assertThat(errors.get(1).getCode(), is(FanOut.TIMEOUT_CODE));
+        Assert.assertThat(errors.containsKey(0), is(false));
+    }
+
+    @Test
+    public void firstSuccessShouldReturnFirstSuccessfulCall() {
+        List<Supplier<String>> calls = Arrays.asList(
+                () -> {
+                    throw error("DOWN", 503);
+                },
+                () -> {
+                    sleep(20);
+                    return "replica";
+                },
+                () -> {
+                    sleep(10_000);
+                    return "slow replica";
+                });
+
+        ClientResponse<String> response = ClientResponse.firstSuccess(calls, FanOut.on(executor));
+
+        Assert.assertThat(response.get(), is("replica"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void firstSuccessShouldAggregateErrorsWhenAllFail() {
+        List<Supplier<String>> calls = Arrays.asList(() -> {
+            throw error("DOWN", 503);
+        }, () -> {
+            throw error("GONE", 410);
+        });
+
+        ClientResponse<String> response = ClientResponse.firstSuccess(calls, FanOut.on(executor).parallelism(1));
+
+        Assert.assertThat(response.getError().getCode(), is("DOWN"));
+        Assert.assertThat(((Map<Integer, ErrorResponse>) response.getError().metadata(FanOut.ERRORS_METADATA)).size(), is(2));
+    }
+
+    @Test
+    public void traverseShouldCallEveryItem() {
+        ClientResponse<List<String>> response = ClientResponse.traverse(Arrays.asList(1, 2, 3), id -> "item-" + id, FanOut.on(executor).parallelism(2));
+
+        Assert.assertThat(response.get(), equalTo(Arrays.asList("item-1", "item-2", "item-3")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void traverseShouldReportUndecodedFailuresAsItemErrors() {
+        ClientResponse<List<String>> response = ClientResponse.traverse(Arrays.asList(1, 2, 3), id -> {
+            if (id == 2)
+                throw new RetryableException("Connection refused", Request.HttpMethod.GET, null);
+            return "item-" + id;
+        }, FanOut.on(executor).parallelism(1));
+
+        Assert.assertThat(response.getHttpStatus().get(), is(500));
+        Assert.assertThat(response.getError().getCode(), is(FanOut.FAILURE_CODE));
+        Assert.assertThat(response.getError().getMessage(), is("Connection refused"));
+        Map<Integer, ErrorResponse> errors = (Map<Integer, ErrorResponse>) response.getError().metadata(FanOut.ERRORS_METADATA);
+        Assert.assertThat(errors.keySet(), equalTo((Object) Collections.singleton(1)));
+    }
+
+    @Test
+    public void firstSuccessShouldSkipUndecodedFailures() {
+        List<Supplier<String>> calls = Arrays.asList(() -> {
+            throw new IllegalStateException("bug");
+        }, () -> "replica");
+
+        ClientResponse<String> response = ClientResponse.firstSuccess(calls, FanOut.on(executor).parallelism(1));
+
+        Assert.assertThat(response.get(), is("replica"));
+    }
+
+    private static ClientResponseErrorDecoder.ClientResponseException error(String code, int status) {
+        return new ClientResponseErrorDecoder.ClientResponseException("Connector request fail", ErrorResponse.of(code, code), status);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import br.org.abnerrolim.spring.feign.connector.utils.FeignJsonMapper;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.*;
+
+public class FeignBinaryDecoderTest {
+
+    private final FeignJsonMapper jsonMapper = new FeignJsonMapper();
+
+    @Test
+    public void shouldRoundTripBodiesInBinaryCodec() throws Exception {
+        for (BinaryCodec codec : BinaryCodec.values()) {
+            RequestTemplate template = new RequestTemplate();
+            template.header("content-type", "application/json");
+            template.header("CONTENT-TYPE", "application/json");
+            new FeignBinaryEncoder(jsonMapper, codec).encode(new Item("book", 2), Item.class, template);
+
+            Assert.assertThat(template.headers().get("Content-Type"), hasItem(codec.mediaType()));
+            Assert.assertThat(template.headers().containsKey("content-type"), is(false));
+            Assert.assertThat(template.headers().containsKey("CONTENT-TYPE"), is(false));
+
+            Object decoded = new FeignBinaryDecoder(jsonMapper, codec).decode(response(codec.mediaType(), template.body()), Item.class);
+            Assert.assertThat(decoded, equalTo(new Item("book", 2)));
+        }
+    }
+
+    @Test
+    public void shouldFallbackToJsonWhenServerAnswersJson() throws Exception {
+        FeignBinaryDecoder decoder = new FeignBinaryDecoder(jsonMapper, BinaryCodec.SMILE);
+
+        Object decoded = decoder.decode(response("application/json;charset=UTF-8", "{\"name\":\"pen\",\"quantity\":1}".getBytes()), Item.class);
+
+        Assert.assertThat(decoded, equalTo(new Item("pen", 1)));
+    }
+
+    @Test
+    public void shouldResolveCodecOfContentType() {
+        Assert.assertThat(BinaryCodec.of("application/x-jackson-smile"), is(BinaryCodec.SMILE));
+        Assert.assertThat(BinaryCodec.of("Application/CBOR; charset=binary"), is(BinaryCodec.CBOR));
+        Assert.assertThat(BinaryCodec.of("application/json"), is(nullValue()));
+        Assert.assertThat(BinaryCodec.of(null), is(nullValue()));
+    }
+
+    private static Response response(String contentType, byte[] body) {
+        Map<String, Collection<String>> headers = Collections.singletonMap("Content-Type", Collections.singleton(contentType));
+        return Response.builder()
+                .status(200)
+                .reason("OK")
+                .headers(headers)
+                .request(Request.create(Request.HttpMethod.GET, "http://www.com.br:8999/v1/items/1", Collections.emptyMap(), null, Charset.defaultCharset()))
+                .body(body)
+                .build();
+    }
+
+    public static class Item {
+        public String name;
+        public Integer quantity;
+
+        public Item() {
+        }
+
+        Item(String name, Integer quantity) {
+            this.name = name;
+            this.quantity = quantity;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Item))
+                return false;
+            Item item = (Item) o;
+            return name.equals(item.name) && quantity.equals(item.quantity);
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode() * 31 + quantity;
+        }
+    }
+}
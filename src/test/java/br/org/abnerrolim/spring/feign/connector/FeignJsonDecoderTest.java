@@ -0,0 +1,136 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import br.org.abnerrolim.spring.feign.connector.utils.FeignJsonMapper;
+import br.org.abnerrolim.spring.feign.connector.utils.ParameterizedTypeImpl;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.codec.DecodeException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.*;
+
+public class FeignJsonDecoderTest {
+
+    private final FeignJsonMapper jsonMapper = new FeignJsonMapper();
+    private final FeignJsonDecoder decoder = new FeignJsonDecoder(jsonMapper);
+    private final FeignJsonEncoder encoder = new FeignJsonEncoder(jsonMapper);
+
+    @Test
+    public void shouldDecodeGenericTypeFromBodyBytes() throws Exception {
+        Type listOfMaps = ParameterizedTypeImpl.make(List.class, new Type[]{Map.class}, null);
+
+        Object decoded = decoder.decode(response(200, "[{\"id\":1},{\"id\":2}]"), listOfMaps);
+
+        Assert.assertThat(decoded, instanceOf(List.class));
+        Assert.assertThat(((List<?>) decoded).size(), is(2));
+        Assert.assertThat(((Map<?, ?>) ((List<?>) decoded).get(1)).get("id"), is((Object) 2));
+    }
+
+    @Test
+    public void shouldDecodeEmptyBodyAsNullAnd404AsEmptyValue() throws Exception {
+        Assert.assertThat(decoder.decode(response(200, ""), Map.class), is(nullValue()));
+        Assert.assertThat(decoder.decode(response(404, "{\"id\":1}"), List.class), equalTo((Object) Collections.emptyList()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldStreamArrayElementsAndCloseBodyAtTheEnd() throws Exception {
+        Type streamOfMaps = ParameterizedTypeImpl.make(Stream.class, new Type[]{Map.class}, null);
+        ClosingBody body = new ClosingBody("[{\"id\":1},{\"id\":2},{\"id\":3}]");
+
+        Stream<Map<String, Object>> decoded = (Stream<Map<String, Object>>) decoder.decode(response(200, body), streamOfMaps);
+
+        Assert.assertThat(body.closed, is(false));
+        Assert.assertThat(decoded.map(m -> m.get("id")).collect(Collectors.toList()), equalTo(Arrays.asList((Object) 1, 2, 3)));
+        Assert.assertThat(body.closed, is(true));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldReadOnlyConsumedElementsAndCloseOnStreamClose() throws Exception {
+        Type streamOfMaps = ParameterizedTypeImpl.make(Stream.class, new Type[]{Map.class}, null);
+        ClosingBody body = new ClosingBody("[{\"id\":1},{\"id\":2},{\"id\":3}]");
+
+        try (Stream<Map<String, Object>> decoded = (Stream<Map<String, Object>>) decoder.decode(response(200, body), streamOfMaps)) {
+            Assert.assertThat(decoded.findFirst().get().get("id"), is((Object) 1));
+            Assert.assertThat(body.closed, is(false));
+        }
+        Assert.assertThat(body.closed, is(true));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldIterateArrayElements() throws Exception {
+        Type iteratorOfMaps = ParameterizedTypeImpl.make(Iterator.class, new Type[]{Map.class}, null);
+
+        Iterator<Map<String, Object>> decoded = (Iterator<Map<String, Object>>) decoder.decode(response(200, "[{\"id\":1},{\"id\":2}]"), iteratorOfMaps);
+
+        Assert.assertThat(decoded.next().get("id"), is((Object) 1));
+        Assert.assertThat(decoded.next().get("id"), is((Object) 2));
+        Assert.assertThat(decoded.hasNext(), is(false));
+    }
+
+    @Test
+    public void shouldDecodeEmptyOrMissingLazyBodyAsEmpty() throws Exception {
+        Type streamOfMaps = ParameterizedTypeImpl.make(Stream.class, new Type[]{Map.class}, null);
+
+        Assert.assertThat(((Stream<?>) decoder.decode(response(200, ""), streamOfMaps)).count(), is(0L));
+        Assert.assertThat(((Stream<?>) decoder.decode(response(404, "[{}]"), streamOfMaps)).count(), is(0L));
+    }
+
+    @Test(expected = DecodeException.class)
+    public void shouldRejectLazyTypeForNonArrayBody() throws Exception {
+        Type streamOfMaps = ParameterizedTypeImpl.make(Stream.class, new Type[]{Map.class}, null);
+
+        decoder.decode(response(200, "{\"id\":1}"), streamOfMaps);
+    }
+
+    @Test
+    public void shouldEncodeUtf8Bytes() {
+        RequestTemplate template = new RequestTemplate();
+
+        encoder.encode(Collections.singletonMap("name", "Jo\u00e3o"), Map.class, template);
+
+        Assert.assertThat(new String(template.body(), Charset.forName("UTF-8")), equalTo("{\"name\":\"Jo\u00e3o\"}"));
+    }
+
+    private static Response response(int status, String body) {
+        return response(status, new ClosingBody(body));
+    }
+
+    private static Response response(int status, ClosingBody body) {
+        return Response.builder()
+                .status(status)
+                .reason("OK")
+                .headers(Collections.emptyMap())
+                .request(Request.create(Request.HttpMethod.GET, "http://www.com.br:8999/v1/items", Collections.emptyMap(), null, Charset.defaultCharset()))
+                .body(body, null)
+                .build();
+    }
+
+    private static class ClosingBody extends ByteArrayInputStream {
+        private boolean closed;
+
+        private ClosingBody(String body) {
+            super(body.getBytes(Charset.forName("UTF-8")));
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import feign.Client;
+import feign.Feign;
+import feign.Request;
+import feign.RequestLine;
+import feign.Response;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.CoreMatchers.*;
+
+public class LoadBalancerTest {
+
+    interface StubClient {
+        @RequestLine("GET /v1/items?page=1")
+        Response items();
+    }
+
+    private static final List<String> HOSTS = Arrays.asList("http://a:8080", "http://b:8080", "http://c:8080");
+
+    @Test
+    public void roundRobinShouldAlternateHosts() {
+        LoadBalancer loadBalancer = LoadBalancer.builder(() -> HOSTS).strategy(SelectionStrategy.roundRobin()).build();
+        List<String> urls = new ArrayList<>();
+        StubClient client = Feign.builder()
+                .client(loadBalancer.client(recording(urls)))
+                .target(DynamicTarget.create(StubClient.class, "http://localhost", loadBalancer::getHost));
+
+        for (int i = 0; i < 4; i++)
+            client.items();
+
+        Assert.assertThat(urls, equalTo(Arrays.asList("http://a:8080/v1/items?page=1", "http://b:8080/v1/items?page=1",
+                "http://c:8080/v1/items?page=1", "http://a:8080/v1/items?page=1")));
+        for (Endpoint endpoint : loadBalancer.endpoints())
+            Assert.assertThat(endpoint.inFlight(), is(0));
+    }
+
+    @Test
+    public void randomShouldReachEveryHost() throws IOException {
+        LoadBalancer loadBalancer = LoadBalancer.builder(() -> HOSTS).strategy(SelectionStrategy.random()).build();
+        Client client = loadBalancer.client(recording(new ArrayList<>()));
+        HashSet<String> hosts = new HashSet<>();
+
+        for (int i = 0; i < 200; i++) {
+            hosts.add(loadBalancer.getHost());
+            execute(client);
+        }
+
+        Assert.assertThat(hosts, equalTo(new HashSet<>(HOSTS)));
+    }
+
+    @Test
+    public void leastOutstandingShouldPickIdleHost() {
+        LoadBalancer loadBalancer = LoadBalancer.builder(() -> HOSTS).strategy(SelectionStrategy.leastOutstanding()).build();
+        List<Endpoint> endpoints = loadBalancer.endpoints();
+        endpoints.get(0).acquire();
+        endpoints.get(2).acquire();
+        endpoints.get(2).acquire();
+
+        for (int i = 0; i < 20; i++)
+            Assert.assertThat(SelectionStrategy.leastOutstanding().select(endpoints).host(), is("http://b:8080"));
+    }
+
+    @Test
+    public void powerOfTwoChoicesShouldAvoidTheBusiestHost() {
+        List<Endpoint> endpoints = LoadBalancer.builder(() -> HOSTS).build().endpoints();
+        for (int i = 0; i < 5; i++)
+            endpoints.get(1).acquire();
+        endpoints.get(2).acquire();
+        SelectionStrategy strategy = SelectionStrategy.powerOfTwoChoices();
+        Map<String, Integer> picks = new HashMap<>();
+
+        for (int i = 0; i < 300; i++)
+            picks.merge(strategy.select(endpoints).host(), 1, Integer::sum);
+
+        Assert.assertThat(picks.containsKey("http://b:8080"), is(false));
+        Assert.assertThat(picks.get("http://a:8080") > picks.get("http://c:8080"), is(true));
+    }
+
+    @Test
+    public void shouldCountCallsInFlightUntilResponse() throws IOException {
+        LoadBalancer loadBalancer = LoadBalancer.builder(() -> Collections.singletonList("http://a:8080")).build();
+        AtomicReference<Integer> inFlightDuringCall = new AtomicReference<>();
+        Client client = loadBalancer.client((request, options) -> {
+            inFlightDuringCall.set(loadBalancer.endpoints().get(0).inFlight());
+            throw new IOException("Connection refused");
+        });
+
+        loadBalancer.getHost();
+        try {
+            execute(client);
+            Assert.fail("IOException expected");
+        } catch (IOException expected) {
+        }
+
+        Assert.assertThat(inFlightDuringCall.get(), is(1));
+        Assert.assertThat(loadBalancer.endpoints().get(0).inFlight(), is(0));
+    }
+
+    @Test
+    public void shouldReleaseHostPickedButNotExecuted() {
+        LoadBalancer loadBalancer = LoadBalancer.builder(() -> Collections.singletonList("http://a:8080")).build();
+
+        loadBalancer.getHost();
+        loadBalancer.getHost();
+
+        Assert.assertThat(loadBalancer.endpoints().get(0).inFlight(), is(1));
+    }
+
+    @Test
+    public void shouldKeepEndpointStateWhenHostsChange() {
+        AtomicReference<List<String>> hosts = new AtomicReference<>(Arrays.asList("http://a:8080", "http://b:8080"));
+        LoadBalancer loadBalancer = LoadBalancer.builder(hosts::get).build();
+        Endpoint b = loadBalancer.endpoints().get(1);
+        b.acquire();
+
+        hosts.set(Arrays.asList("http://b:8080", "http://c:8080"));
+        List<Endpoint> endpoints = loadBalancer.endpoints();
+
+        Assert.assertThat(endpoints.get(0), is(sameInstance(b)));
+        Assert.assertThat(endpoints.get(0).inFlight(), is(1));
+        Assert.assertThat(endpoints.get(1).host(), is("http://c:8080"));
+        Assert.assertThat(loadBalancer.endpoints(), is(sameInstance(endpoints)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldFailWithoutHosts() {
+        LoadBalancer.builder(Collections::emptyList).build().getHost();
+    }
+
+    private static Client recording(List<String> urls) {
+        return (request, options) -> {
+            urls.add(request.url());
+            return Response.builder()
+                    .status(200)
+                    .reason("OK")
+                    .headers(Collections.emptyMap())
+                    .request(request)
+                    .body(new byte[0])
+                    .build();
+        };
+    }
+
+    private static void execute(Client client) throws IOException {
+        client.execute(Request.create(Request.HttpMethod.GET, "http://a:8080/v1", Collections.emptyMap(), null, null), new Request.Options());
+    }
+}
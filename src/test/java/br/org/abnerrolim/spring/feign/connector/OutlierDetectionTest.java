@@ -0,0 +1,178 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.CoreMatchers.*;
+
+public class OutlierDetectionTest {
+
+    private static final List<String> HOSTS = Arrays.asList("http://a:8080", "http://b:8080", "http://c:8080");
+
+    private final AtomicLong now = new AtomicLong();
+    private final Set<String> failingHosts = new HashSet<>();
+    private final Set<String> slowHosts = new HashSet<>();
+
+    @Test
+    public void shouldEjectHostAfterConsecutiveFailures() throws IOException {
+        LoadBalancer loadBalancer = loadBalancer(OutlierDetection.builder().consecutiveFailures(2).returnWindow(Duration.ZERO).build());
+        Client client = loadBalancer.client(stubClient());
+        failingHosts.add("http://b:8080");
+
+        for (int i = 0; i < 6; i++)
+            call(loadBalancer, client);
+
+        Endpoint b = loadBalancer.endpoints().get(1);
+        Assert.assertThat(b.failures(), is(2L));
+        Assert.assertThat(b.ejections(), is(1));
+        Assert.assertThat(loadBalancer.endpoints().get(0).successes() > 0, is(true));
+        for (int i = 0; i < 50; i++)
+            Assert.assertThat(call(loadBalancer, client), is(not("http://b:8080")));
+
+        advanceSeconds(30);
+        Assert.assertThat(selectedHosts(loadBalancer, client, 30).contains("http://b:8080"), is(true));
+    }
+
+    @Test
+    public void shouldDoubleEjectionTimeWhileHostKeepsFailing() throws IOException {
+        LoadBalancer loadBalancer = loadBalancer(OutlierDetection.builder().consecutiveFailures(1).returnWindow(Duration.ZERO).build());
+        Client client = loadBalancer.client(stubClient());
+        failingHosts.add("http://b:8080");
+        selectedHosts(loadBalancer, client, 3);
+
+        advanceSeconds(30);
+        selectedHosts(loadBalancer, client, 3);
+        Assert.assertThat(loadBalancer.endpoints().get(1).ejections(), is(2));
+
+        advanceSeconds(30);
+        Assert.assertThat(selectedHosts(loadBalancer, client, 30).contains("http://b:8080"), is(false));
+        advanceSeconds(30);
+        Assert.assertThat(selectedHosts(loadBalancer, client, 30).contains("http://b:8080"), is(true));
+    }
+
+    @Test
+    public void shouldReturnHostGradually() throws IOException {
+        LoadBalancer loadBalancer = loadBalancer(OutlierDetection.builder().consecutiveFailures(1).returnWindow(Duration.ofSeconds(100)).build());
+        Client client = loadBalancer.client(stubClient());
+        failingHosts.add("http://b:8080");
+        selectedHosts(loadBalancer, client, 3);
+        failingHosts.clear();
+
+        advanceSeconds(31);
+        int early = countCalls(loadBalancer, client, "http://b:8080", 3000);
+        advanceSeconds(100);
+        int full = countCalls(loadBalancer, client, "http://b:8080", 3000);
+
+        Assert.assertThat(early > 0, is(true));
+        Assert.assertThat(early < 600, is(true));
+        Assert.assertThat(full > 800, is(true));
+    }
+
+    @Test
+    public void shouldEjectSlowHosts() throws IOException {
+        LoadBalancer loadBalancer = loadBalancer(OutlierDetection.builder().latencyThreshold(Duration.ofMillis(500)).build());
+        Client client = loadBalancer.client(stubClient());
+        slowHosts.add("http://c:8080");
+
+        selectedHosts(loadBalancer, client, 15);
+
+        Endpoint c = loadBalancer.endpoints().get(2);
+        Assert.assertThat(c.ejections(), is(1));
+        Assert.assertThat(loadBalancer.endpoints().get(0).latencyNanos(), is(TimeUnit.MILLISECONDS.toNanos(10)));
+        Assert.assertThat(selectedHosts(loadBalancer, client, 30).contains("http://c:8080"), is(false));
+    }
+
+    @Test
+    public void shouldKeepCallingWhenEveryHostIsEjected() throws IOException {
+        LoadBalancer loadBalancer = loadBalancer(OutlierDetection.builder().consecutiveFailures(1).build());
+        Client client = loadBalancer.client(stubClient());
+        failingHosts.addAll(HOSTS);
+
+        Assert.assertThat(selectedHosts(loadBalancer, client, 30), equalTo((Set<String>) new HashSet<>(HOSTS)));
+    }
+
+    @Test
+    public void shouldCountConnectionErrorsAsFailures() {
+        LoadBalancer loadBalancer = loadBalancer(OutlierDetection.builder().consecutiveFailures(1).build());
+        Client client = loadBalancer.client((request, options) -> {
+            throw new IOException("Connection refused");
+        });
+
+        loadBalancer.getHost();
+        try {
+            execute(client);
+            Assert.fail("IOException expected");
+        } catch (IOException expected) {
+        }
+
+        Assert.assertThat(loadBalancer.endpoints().get(0).failures(), is(1L));
+        Assert.assertThat(loadBalancer.endpoints().get(0).ejections(), is(1));
+    }
+
+    private LoadBalancer loadBalancer(OutlierDetection outlierDetection) {
+        return LoadBalancer.builder(() -> HOSTS)
+                .strategy(SelectionStrategy.roundRobin())
+                .outlierDetection(outlierDetection)
+                .nanoClock(now::get)
+                .build();
+    }
+
+    /**
+     * Answers 503 from failing hosts and takes 1 second on slow ones, 10 millis on the others.
+     */
+    private Client stubClient() {
+        return (request, options) -> {
+            String host = request.url().substring(0, request.url().indexOf('/', "http://".length()));
+            now.addAndGet(TimeUnit.MILLISECONDS.toNanos(slowHosts.contains(host) ? 1000 : 10));
+            return Response.builder()
+                    .status(failingHosts.contains(host) ? 503 : 200)
+                    .reason("Stub")
+                    .headers(Collections.emptyMap())
+                    .request(request)
+                    .body(new byte[0])
+                    .build();
+        };
+    }
+
+    private static String call(LoadBalancer loadBalancer, Client client) throws IOException {
+        String host = loadBalancer.getHost();
+        client.execute(Request.create(Request.HttpMethod.GET, host + "/v1", Collections.emptyMap(), null, null), new Request.Options());
+        return host;
+    }
+
+    private static Set<String> selectedHosts(LoadBalancer loadBalancer, Client client, int calls) throws IOException {
+        Set<String> hosts = new HashSet<>();
+        for (int i = 0; i < calls; i++)
+            hosts.add(call(loadBalancer, client));
+        return hosts;
+    }
+
+    private static int countCalls(LoadBalancer loadBalancer, Client client, String host, int calls) throws IOException {
+        int count = 0;
+        for (int i = 0; i < calls; i++)
+            if (call(loadBalancer, client).equals(host))
+                count++;
+        return count;
+    }
+
+    private static void execute(Client client) throws IOException {
+        client.execute(Request.create(Request.HttpMethod.GET, "http://a:8080/v1", Collections.emptyMap(), null, null), new Request.Options());
+    }
+
+    private void advanceSeconds(long seconds) {
+        now.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+}
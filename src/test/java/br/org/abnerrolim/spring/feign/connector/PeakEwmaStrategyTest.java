@@ -0,0 +1,120 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.CoreMatchers.*;
+
+public class PeakEwmaStrategyTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final PeakEwmaStrategy strategy = new PeakEwmaStrategy(TimeUnit.SECONDS.toNanos(10), now::get);
+    private final Endpoint a = new Endpoint("http://a:8080");
+    private final Endpoint b = new Endpoint("http://b:8080");
+    private final List<Endpoint> endpoints = Arrays.asList(a, b);
+
+    @Test
+    public void shouldPickFasterHost() {
+        strategy.record(a, false, millis(10));
+        strategy.record(b, false, millis(50));
+
+        for (int i = 0; i < 20; i++)
+            Assert.assertThat(strategy.select(endpoints), is(sameInstance(a)));
+    }
+
+    @Test
+    public void shouldWeightLatencyByCallsInFlight() {
+        strategy.record(a, false, millis(10));
+        strategy.record(b, false, millis(50));
+        for (int i = 0; i < 5; i++)
+            a.acquire();
+
+        Assert.assertThat(strategy.select(endpoints), is(sameInstance(b)));
+    }
+
+    @Test
+    public void shouldJumpToPeaksAndDecaySlowly() {
+        strategy.record(a, false, millis(10));
+        now.addAndGet(millis(100));
+        strategy.record(a, false, millis(100));
+
+        Assert.assertThat(strategy.cost(a, now.get()), is((double) millis(100)));
+
+        now.addAndGet(millis(100));
+        strategy.record(a, false, millis(10));
+        Assert.assertThat(strategy.cost(a, now.get()) > millis(95), is(true));
+    }
+
+    @Test
+    public void shouldProbeSlowHostsAgainAfterIdleTime() {
+        strategy.record(a, false, millis(10));
+        strategy.record(b, false, millis(50));
+        now.addAndGet(TimeUnit.SECONDS.toNanos(20));
+        strategy.record(a, false, millis(10));
+
+        Assert.assertThat(strategy.select(endpoints), is(sameInstance(b)));
+    }
+
+    @Test
+    public void shouldProbeNewHostsOneCallAtATime() {
+        strategy.record(a, false, millis(10));
+
+        Assert.assertThat(strategy.select(endpoints), is(sameInstance(b)));
+        b.acquire();
+        Assert.assertThat(strategy.select(endpoints), is(sameInstance(a)));
+    }
+
+    @Test
+    public void shouldPenalizeFastFailures() {
+        strategy.record(a, false, millis(10));
+        strategy.record(b, false, millis(15));
+
+        strategy.record(a, true, millis(1));
+
+        Assert.assertThat(strategy.cost(a, now.get()), is((double) millis(20)));
+        Assert.assertThat(strategy.select(endpoints), is(sameInstance(b)));
+    }
+
+    @Test
+    public void shouldKeepSlowZoneAsFailover() throws IOException {
+        LoadBalancer loadBalancer = LoadBalancer.builder(() -> Arrays.asList("http://local:8080", "http://remote:8080"))
+                .strategy(strategy)
+                .nanoClock(now::get)
+                .build();
+        Client client = loadBalancer.client((request, options) -> {
+            now.addAndGet(request.url().startsWith("http://local") ? millis(5) : millis(40));
+            return Response.builder()
+                    .status(200)
+                    .reason("OK")
+                    .headers(Collections.emptyMap())
+                    .request(request)
+                    .body(new byte[0])
+                    .build();
+        });
+
+        int remote = 0;
+        for (int i = 0; i < 1000; i++) {
+            String host = loadBalancer.getHost();
+            client.execute(Request.create(Request.HttpMethod.GET, host + "/v1", Collections.emptyMap(), null, null), new Request.Options());
+            if (host.equals("http://remote:8080"))
+                remote++;
+        }
+
+        Assert.assertThat(remote > 0, is(true));
+        Assert.assertThat(remote < 50, is(true));
+    }
+
+    private static long millis(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
@@ -0,0 +1,245 @@
+package br.org.abnerrolim.spring.feign.connector;
+
+import feign.Param;
+import feign.RequestLine;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.CoreMatchers.*;
+
+public class ReactiveCallsTest {
+
+    interface ReactiveClient {
+        @RequestLine("GET /codes/{id}")
+        Mono<ClientResponse<String>> code(@Param("id") String id);
+
+        @RequestLine("GET /numbers?size={size}")
+        Flux<Integer> numbers(@Param("size") int size);
+    }
+
+    private static final int MANY = 1_000_000;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger executions = new AtomicInteger();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger written = new AtomicInteger();
+    private final CountDownLatch aborted = new CountDownLatch(1);
+    private StubServer server;
+    private ReactiveClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubServer();
+        client = new FeignConnectorConfigHelper(1000, 5000, "Reactive", "RCT")
+                .config()
+                .withAsyncExecutor(task -> {
+                    executions.incrementAndGet();
+                    executor.execute(task);
+                })
+                .buildSimpleClient(ReactiveClient.class, "http://localhost:" + server.port());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void monoShouldCallOnlyOnSubscriptionOnAsyncExecutor() {
+        Mono<ClientResponse<String>> mono = client.code("A1");
+
+        Assert.assertThat(requests.get(), is(0));
+        ClientResponse<String> response = mono.block();
+
+        Assert.assertThat(response.get(), is("A1"));
+        Assert.assertThat(requests.get(), is(1));
+        Assert.assertThat(executions.get() > 0, is(true));
+    }
+
+    @Test
+    public void monoWithoutAsyncExecutorShouldNotCallOnSubscribingThread() {
+        ReactiveClient defaultClient = new FeignConnectorConfigHelper(1000, 5000, "Reactive", "RCT")
+                .config()
+                .buildSimpleClient(ReactiveClient.class, "http://localhost:" + server.port());
+        AtomicReference<String> emittingThread = new AtomicReference<>();
+
+        ClientResponse<String> response = defaultClient.code("B2")
+                .doOnNext(value -> emittingThread.set(Thread.currentThread().getName()))
+                .block();
+
+        Assert.assertThat(response.get(), is("B2"));
+        Assert.assertThat(emittingThread.get(), startsWith("elastic-"));
+    }
+
+    @Test
+    public void monoShouldEmitDecodedErrorsAsClientResponse() {
+        ClientResponse<String> response = client.code("invalid").block();
+
+        Assert.assertThat(response.isError(), is(true));
+        Assert.assertThat(response.getHttpStatus().get(), is(422));
+        Assert.assertThat(response.getError().getCode(), is("INVALID-CODE"));
+        Assert.assertThat(response.getError().getMessage(), is("Code is invalid"));
+    }
+
+    @Test
+    public void fluxShouldEmitArrayElements() {
+        List<Integer> numbers = client.numbers(5).collectList().block();
+
+        Assert.assertThat(numbers, equalTo(Arrays.asList(0, 1, 2, 3, 4)));
+    }
+
+    @Test
+    public void fluxShouldFailWithDecodedErrors() {
+        try {
+            client.numbers(-1).collectList().block();
+            Assert.fail("Error expected");
+        } catch (ClientResponseErrorDecoder.ClientResponseException e) {
+            Assert.assertThat(e.httpStatusResponse, is(400));
+            Assert.assertThat(e.response.getCode(), is("INVALID-SIZE"));
+        }
+    }
+
+    @Test
+    public void fluxShouldReadOnlyRequestedElementsAndCloseOnCancel() throws InterruptedException {
+        List<Integer> received = new CopyOnWriteArrayList<>();
+        AtomicReference<Subscription> subscription = new AtomicReference<>();
+        CountDownLatch firstElements = new CountDownLatch(3);
+        client.numbers(MANY).subscribe(new Subscriber<Integer>() {
+            @Override
+            public void onSubscribe(Subscription s) {
+                subscription.set(s);
+                s.request(3);
+            }
+
+            @Override
+            public void onNext(Integer number) {
+                received.add(number);
+                firstElements.countDown();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        Assert.assertThat(firstElements.await(5, TimeUnit.SECONDS), is(true));
+        Thread.sleep(200);
+        Assert.assertThat(received, equalTo(Arrays.asList(0, 1, 2)));
+        Assert.assertThat(written.get() < MANY, is(true));
+
+        subscription.get().cancel();
+
+        Assert.assertThat(aborted.await(5, TimeUnit.SECONDS), is(true));
+        Assert.assertThat(received.size(), is(3));
+    }
+
+    /**
+     * Minimal http/1.1 server answering each connection with a single response and closing it.
+     */
+    private final class StubServer implements AutoCloseable {
+        private final ServerSocket socket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private StubServer() throws IOException {
+            Thread acceptor = new Thread(this::accept, "stub-server");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        private int port() {
+            return socket.getLocalPort();
+        }
+
+        private void accept() {
+            while (!closed.get()) {
+                try {
+                    Socket connection = socket.accept();
+                    Thread handler = new Thread(() -> handle(connection), "stub-server-connection");
+                    handler.setDaemon(true);
+                    handler.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void handle(Socket connection) {
+            try (Socket ignored = connection) {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.US_ASCII));
+                String path = reader.readLine().split(" ")[1];
+                while (!reader.readLine().isEmpty()) {
+                }
+                requests.incrementAndGet();
+                OutputStream out = connection.getOutputStream();
+                if (path.equals("/codes/invalid")) {
+                    respond(out, 422, "{\"code\":\"INVALID-CODE\",\"message\":\"Code is invalid\"}");
+                } else if (path.startsWith("/codes/")) {
+                    respond(out, 200, "\"" + path.substring("/codes/".length()) + "\"");
+                } else if (path.equals("/numbers?size=-1")) {
+                    respond(out, 400, "{\"code\":\"INVALID-SIZE\",\"message\":\"Size must be positive\"}");
+                } else {
+                    streamNumbers(out, Integer.parseInt(path.substring(path.indexOf('=') + 1)));
+                }
+            } catch (IOException e) {
+                aborted.countDown();
+            }
+        }
+
+        private void respond(OutputStream out, int status, String body) throws IOException {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            out.write(("HTTP/1.1 " + status + " Stub\r\nContent-Type: application/json\r\nContent-Length: " + bytes.length
+                    + "\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.write(bytes);
+            out.flush();
+        }
+
+        /**
+         * Writes the array without content length, so the client reads it until the connection ends.
+         */
+        private void streamNumbers(OutputStream out, int size) throws IOException {
+            out.write("HTTP/1.1 200 OK\r\nContent-Type: application/json\r\nConnection: close\r\n\r\n[".getBytes(StandardCharsets.US_ASCII));
+            for (int i = 0; i < size; i++) {
+                out.write(((i > 0 ? "," : "") + i).getBytes(StandardCharsets.US_ASCII));
+                written.incrementAndGet();
+            }
+            out.write(']');
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed.set(true);
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package br.org.abnerrolim.spring.feign.connector.logging;
+
+import br.org.abnerrolim.spring.feign.connector.FeignConnectorConfigHelper;
+import br.org.abnerrolim.spring.feign.connector.obfuscate.HttpObfuscator;
+import br.org.abnerrolim.spring.feign.connector.obfuscate.NoneHttpObfuscator;
+import br.org.abnerrolim.spring.feign.connector.obfuscate.RequestWrapper;
+import br.org.abnerrolim.spring.feign.connector.obfuscate.ResponseWrapper;
+import feign.Request;
+import feign.Response;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.*;
+
+public class AsyncExchangeLoggerTest {
+
+    private final Response response = Response.builder()
+            .headers(Collections.emptyMap())
+            .body("{}".getBytes())
+            .status(200)
+            .reason("OK")
+            .request(Request.create(Request.HttpMethod.GET, "http://www.com.br:8999/v1/code", Collections.emptyMap(), null, Charset.defaultCharset()))
+            .build();
+
+    @Test
+    public void shouldObfuscateOnWorkerThread() throws Exception {
+        List<String> threads = new CopyOnWriteArrayList<>();
+        AsyncExchangeLogger exchangeLogger = new AsyncExchangeLogger("test-log", 8, OverflowPolicy.DROP);
+
+        Assert.assertThat(exchangeLogger.submit(exchange(new RecordingObfuscator(threads, null))), is(true));
+        exchangeLogger.close();
+
+        Assert.assertThat(exchangeLogger.writtenCount(), is(1L));
+        Assert.assertThat(threads, equalTo(Arrays.asList("test-log", "test-log")));
+    }
+
+    @Test
+    public void shouldDropAndCountWhenBufferIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingObfuscator blocking = new RecordingObfuscator(new CopyOnWriteArrayList<>(), release);
+        AsyncExchangeLogger exchangeLogger = new AsyncExchangeLogger("test-log", 2, OverflowPolicy.DROP);
+
+        exchangeLogger.submit(exchange(blocking));
+        Assert.assertThat(blocking.started.await(5, TimeUnit.SECONDS), is(true));
+        Assert.assertThat(exchangeLogger.submit(exchange(blocking)), is(true));
+        Assert.assertThat(exchangeLogger.submit(exchange(blocking)), is(true));
+        Assert.assertThat(exchangeLogger.submit(exchange(blocking)), is(false));
+        release.countDown();
+        exchangeLogger.close();
+
+        Assert.assertThat(exchangeLogger.droppedCount(), is(1L));
+        Assert.assertThat(exchangeLogger.writtenCount(), is(3L));
+    }
+
+    @Test
+    public void shouldBlockUntilSlotIsFree() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingObfuscator blocking = new RecordingObfuscator(new CopyOnWriteArrayList<>(), release);
+        AsyncExchangeLogger exchangeLogger = new AsyncExchangeLogger("test-log", 2, OverflowPolicy.BLOCK);
+
+        exchangeLogger.submit(exchange(blocking));
+        Assert.assertThat(blocking.started.await(5, TimeUnit.SECONDS), is(true));
+        exchangeLogger.submit(exchange(blocking));
+        exchangeLogger.submit(exchange(blocking));
+        Thread releaser = new Thread(() -> {
+            sleep(50);
+            release.countDown();
+        });
+        releaser.start();
+
+        Assert.assertThat(exchangeLogger.submit(exchange(blocking)), is(true));
+        Assert.assertThat(release.getCount(), is(0L));
+        exchangeLogger.close();
+
+        Assert.assertThat(exchangeLogger.droppedCount(), is(0L));
+        Assert.assertThat(exchangeLogger.writtenCount(), is(4L));
+    }
+
+    @Test
+    public void shouldDropAfterClose() throws Exception {
+        AsyncExchangeLogger exchangeLogger = new AsyncExchangeLogger(4, OverflowPolicy.BLOCK);
+        exchangeLogger.close();
+
+        Assert.assertThat(exchangeLogger.submit(exchange(new NoneHttpObfuscator())), is(false));
+        Assert.assertThat(exchangeLogger.droppedCount(), is(1L));
+    }
+
+    @Test
+    public void shouldParkIdleWorkerUntilSubmit() throws Exception {
+        AsyncExchangeLogger exchangeLogger = new AsyncExchangeLogger("idle-test-log", 4, OverflowPolicy.DROP);
+        Thread worker = workers("idle-test-log").get(0);
+        for (int i = 0; i < 100 && worker.getState() != Thread.State.WAITING; i++)
+            sleep(10);
+
+        Assert.assertThat(worker.getState(), is(Thread.State.WAITING));
+        exchangeLogger.close();
+        Assert.assertThat(worker.isAlive(), is(false));
+    }
+
+    @Test
+    public void shouldLogOrDropEverySubmitRacingClose() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            AsyncExchangeLogger exchangeLogger = new AsyncExchangeLogger("race-test-log", 1024, OverflowPolicy.DROP);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> submitters = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                Thread submitter = new Thread(() -> {
+                    await(start);
+                    for (int j = 0; j < 200; j++)
+                        exchangeLogger.submit(exchange(new NoneHttpObfuscator()));
+                });
+                submitter.start();
+                submitters.add(submitter);
+            }
+            start.countDown();
+            exchangeLogger.close();
+            for (Thread submitter : submitters)
+                submitter.join();
+
+            Assert.assertThat(exchangeLogger.writtenCount() + exchangeLogger.droppedCount(), is(800L));
+        }
+    }
+
+    @Test
+    public void helperShouldShareWorkersAndStopThemOnDestroy() throws Exception {
+        FeignConnectorConfigHelper helper = new FeignConnectorConfigHelper(1000, 5000, "Shared", "SHR");
+        helper.config().withAsyncLogging(8, OverflowPolicy.DROP);
+        helper.config().withAsyncLogging(8, OverflowPolicy.DROP);
+        helper.config().withAsyncLogging(8, OverflowPolicy.BLOCK);
+
+        List<Thread> workers = workers("Shared-feign-connector-log");
+        Assert.assertThat(workers.size(), is(2));
+        helper.destroy();
+        for (Thread worker : workers)
+            Assert.assertThat(worker.isAlive(), is(false));
+    }
+
+    private static List<Thread> workers(String name) {
+        List<Thread> workers = new ArrayList<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet())
+            if (thread.getName().equals(name))
+                workers.add(thread);
+        return workers;
+    }
+
+    private Exchange exchange(HttpObfuscator obfuscator) {
+        return Exchange.success(LoggerFactory.getLogger(AsyncExchangeLoggerTest.class), obfuscator, "Test", "Client#get()", response);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class RecordingObfuscator implements HttpObfuscator {
+        private final NoneHttpObfuscator delegate = new NoneHttpObfuscator();
+        private final List<String> threads;
+        private final CountDownLatch release;
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        private RecordingObfuscator(List<String> threads, CountDownLatch release) {
+            this.threads = threads;
+            this.release = release;
+        }
+
+        @Override
+        public RequestWrapper obfuscate(Request request) {
+            threads.add(Thread.currentThread().getName());
+            started.countDown();
+            if (release != null) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return delegate.obfuscate(request);
+        }
+
+        @Override
+        public ResponseWrapper obfuscate(Response response) {
+            threads.add(Thread.currentThread().getName());
+            return delegate.obfuscate(response);
+        }
+    }
+}
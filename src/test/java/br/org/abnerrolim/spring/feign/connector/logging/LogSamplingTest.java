@@ -0,0 +1,80 @@
+package br.org.abnerrolim.spring.feign.connector.logging;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.*;
+
+public class LogSamplingTest {
+
+    @Test
+    public void shouldLogEverythingByDefault() {
+        Assert.assertThat(LogSampling.always().shouldLog("Client#get()", 200, -1), is(true));
+        Assert.assertThat(LogSampling.always().shouldLog(null, 503, -1), is(true));
+    }
+
+    @Test
+    public void shouldApplyStatusClassBeforeDefaultRate() {
+        LogSampling sampling = LogSampling.builder()
+                .rate(0)
+                .statusClassRate(5, 1)
+                .build();
+
+        Assert.assertThat(sampling.shouldLog("Client#get()", 500, -1), is(true));
+        Assert.assertThat(sampling.shouldLog("Client#get()", 200, -1), is(false));
+        Assert.assertThat(sampling.shouldLog("Client#get()", 404, -1), is(false));
+    }
+
+    @Test
+    public void shouldApplyMethodRateBeforeDefaultRate() {
+        LogSampling sampling = LogSampling.builder()
+                .rate(0)
+                .methodRate("Client#create(Card)", 1)
+                .build();
+
+        Assert.assertThat(sampling.shouldLog("Client#create(Card)", 201, -1), is(true));
+        Assert.assertThat(sampling.shouldLog("Client#get()", 200, -1), is(false));
+    }
+
+    @Test
+    public void shouldApplyStatusClassBeforeMethodRate() {
+        LogSampling sampling = LogSampling.builder()
+                .statusClassRate(5, 1)
+                .methodRate("Client#get()", 0)
+                .build();
+
+        Assert.assertThat(sampling.shouldLog("Client#get()", 503, -1), is(true));
+        Assert.assertThat(sampling.shouldLog("Client#get()", 200, -1), is(false));
+    }
+
+    @Test
+    public void shouldAlwaysLogSlowCalls() {
+        LogSampling sampling = LogSampling.builder()
+                .rate(0)
+                .alwaysLogSlowerThan(Duration.ofMillis(500))
+                .build();
+
+        Assert.assertThat(sampling.shouldLog("Client#get()", 200, TimeUnit.MILLISECONDS.toNanos(600)), is(true));
+        Assert.assertThat(sampling.shouldLog("Client#get()", 200, TimeUnit.MILLISECONDS.toNanos(100)), is(false));
+        Assert.assertThat(sampling.shouldLog("Client#get()", 200, -1), is(false));
+    }
+
+    @Test
+    public void shouldSampleAroundConfiguredRate() {
+        LogSampling sampling = LogSampling.builder().rate(0.1).build();
+        int logged = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (sampling.shouldLog("Client#get()", 200, -1))
+                logged++;
+        }
+        Assert.assertThat(logged > 700 && logged < 1300, is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidRate() {
+        LogSampling.builder().rate(1.5);
+    }
+}
@@ -0,0 +1,50 @@
+package br.org.abnerrolim.spring.feign.connector.obfuscate;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+
+import static org.hamcrest.CoreMatchers.*;
+
+public class CapturingInputStreamTest {
+
+    @Test
+    public void shouldStreamWholeBodyCapturingOnlyThePrefix() throws Exception {
+        byte[] body = "0123456789abcdefghij".getBytes();
+        CapturingInputStream capture = new CapturingInputStream(new ByteArrayInputStream(body), 5, null);
+
+        byte[] read = IOUtils.toByteArray(capture);
+
+        Assert.assertThat(read, equalTo(body));
+        Assert.assertThat(new String(capture.captured()), equalTo("01234"));
+        Assert.assertThat(capture.isTruncated(), is(true));
+        Assert.assertThat(capture.totalLength(), is(20L));
+        Assert.assertThat(capture.isTotalKnown(), is(true));
+    }
+
+    @Test
+    public void shouldFillCaptureWhenBodyWasNotRead() {
+        byte[] body = "0123456789".getBytes();
+        CapturingInputStream capture = new CapturingInputStream(new ByteArrayInputStream(body), 32, body.length);
+
+        capture.fillCapture();
+
+        Assert.assertThat(new String(capture.captured()), equalTo("0123456789"));
+        Assert.assertThat(capture.isTruncated(), is(false));
+    }
+
+    @Test
+    public void shouldUseDeclaredLengthWhenBodyWasNotFullyRead() throws Exception {
+        byte[] body = "0123456789".getBytes();
+        CapturingInputStream capture = new CapturingInputStream(new ByteArrayInputStream(body), 4, body.length);
+
+        capture.read(new byte[6]);
+
+        Assert.assertThat(new String(capture.captured()), equalTo("0123"));
+        Assert.assertThat(capture.isTruncated(), is(true));
+        Assert.assertThat(capture.totalLength(), is(10L));
+        Assert.assertThat(capture.isTotalKnown(), is(true));
+    }
+}
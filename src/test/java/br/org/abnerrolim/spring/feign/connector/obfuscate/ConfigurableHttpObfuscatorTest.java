@@ -1,8 +1,10 @@
 package br.org.abnerrolim.spring.feign.connector.obfuscate;
 
+import br.org.abnerrolim.spring.feign.connector.BinaryCodec;
 import br.org.abnerrolim.spring.feign.connector.utils.FeignJsonMapper;
 import feign.Request;
 import feign.Response;
+import org.apache.commons.io.IOUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -27,7 +29,7 @@ public class ConfigurableHttpObfuscatorTest {
         String body = jsonMapper.write(new ObjectToObfuscate());
 
         Request request = Request.create(
-                "GET",
+                Request.HttpMethod.GET,
                 "http://www.com.br:8999/v1/secret-code/230329324/public-code/243143DadeE/",
                 headers,
                 body.getBytes(),
@@ -55,7 +57,7 @@ public class ConfigurableHttpObfuscatorTest {
 
         String body = jsonMapper.write(new ObjectToObfuscate());
         Request request = Request.create(
-                "GET",
+                Request.HttpMethod.GET,
                 "http://www.com.br:8999/v1/secret-code/230329324/public-code/243143DadeE/",
                 headers,
                 body.getBytes(),
@@ -83,6 +85,212 @@ public class ConfigurableHttpObfuscatorTest {
     }
 
 
+    @Test
+    public void obfuscateResponseWithStreamingJsonBody() throws Exception{
+
+        Map<String, Collection<String>> headers = new HashMap<>();
+        String body = jsonMapper.write(new ObjectToObfuscate());
+        Request request = Request.create(
+                Request.HttpMethod.GET,
+                "http://www.com.br:8999/v1/secret-code/230329324/public-code/243143DadeE/",
+                headers,
+                body.getBytes(),
+                Charset.defaultCharset()
+        );
+
+        Response response = Response.builder()
+                .headers(headers)
+                .body(body.getBytes())
+                .status(200)
+                .reason("OK")
+                .request(request)
+                .build();
+
+        ConfigurableHttpObfuscator configurableHttpObfuscator =  ConfigurableHttpObfuscator.builder()
+                .jsonBodyFields("name", "insideObject.insideName", "insideObject.insideInsideObject.deepNameHideMe")
+                .streamingJsonBody()
+                .build();
+
+        ResponseWrapper wrapper = configurableHttpObfuscator.obfuscate(response);
+        String logString = wrapper.toString();
+        Assert.assertThat(logString, allOf(not(containsString("Secret Name")), containsString("\"insideName\":\"**********\""), containsString("\"deepNameHideMe\":\"**************\""), containsString("Non Secret")));
+        Assert.assertThat(IOUtils.toString(wrapper.getOriginalCopy().body().asInputStream(), Charset.defaultCharset()), equalTo(body));
+    }
+
+
+    @Test
+    public void obfuscateResponseCapturingOnlyMaxLoggedBodySize() throws Exception{
+
+        Map<String, Collection<String>> headers = new HashMap<>();
+        StringBuilder body = new StringBuilder("{\"name\":\"Secret Name\",\"items\":[");
+        for (int i = 0; i < 1000; i++)
+            body.append(i == 0 ? "" : ",").append("{\"document\":\"DOC").append(i).append("\"}");
+        body.append("]}");
+        Request request = Request.create(
+                Request.HttpMethod.GET,
+                "http://www.com.br:8999/v1/export",
+                headers,
+                null,
+                Charset.defaultCharset()
+        );
+
+        Response response = Response.builder()
+                .headers(headers)
+                .body(new java.io.ByteArrayInputStream(body.toString().getBytes()), null)
+                .status(200)
+                .reason("OK")
+                .request(request)
+                .build();
+
+        ConfigurableHttpObfuscator configurableHttpObfuscator =  ConfigurableHttpObfuscator.builder()
+                .jsonBodyFields("name", "items[*].document")
+                .maxLoggedBodySize(256)
+                .build();
+
+        ResponseWrapper wrapper = configurableHttpObfuscator.obfuscate(response);
+        String decoded = IOUtils.toString(wrapper.getOriginalCopy().body().asInputStream(), Charset.defaultCharset());
+        String logString = wrapper.toString();
+
+        Assert.assertThat(decoded, equalTo(body.toString()));
+        Assert.assertThat(logString, allOf(not(containsString("Secret Name")), not(containsString("DOC")), containsString("\"document\":\"****\"")));
+        Assert.assertThat(logString, containsString("...[truncated: 256 of " + body.length() + " bytes logged]"));
+    }
+
+    @Test
+    public void obfuscateResponseSkippingBinaryBody() throws Exception{
+
+        Map<String, Collection<String>> headers = new HashMap<>();
+        headers.put("content-type", Collections.singleton("application/octet-stream"));
+        Request request = Request.create(Request.HttpMethod.GET, "http://www.com.br:8999/v1/file", headers, null, Charset.defaultCharset());
+        byte[] body = new byte[]{'P', 'K', 3, 4, 0, 0, 0, 0};
+        java.io.InputStream stream = new java.io.ByteArrayInputStream(body);
+
+        Response response = Response.builder()
+                .headers(headers)
+                .body(stream, body.length)
+                .status(200)
+                .reason("OK")
+                .request(request)
+                .build();
+
+        ConfigurableHttpObfuscator configurableHttpObfuscator =  ConfigurableHttpObfuscator.builder()
+                .jsonBodyFields("name")
+                .build();
+
+        ResponseWrapper wrapper = configurableHttpObfuscator.obfuscate(response);
+
+        Assert.assertThat(wrapper.getOriginalCopy(), sameInstance(response));
+        Assert.assertThat(stream.available(), is(body.length));
+        Assert.assertThat(wrapper.toString(), containsString("[binary body of 8 bytes omitted]"));
+    }
+
+    @Test
+    public void obfuscateRequestWithFormBody() throws Exception{
+
+        Map<String, Collection<String>> headers = new HashMap<>();
+        headers.put("Content-Type", Collections.singleton("application/x-www-form-urlencoded; charset=UTF-8"));
+        Request request = Request.create(
+                Request.HttpMethod.POST,
+                "http://www.com.br:8999/v1/login",
+                headers,
+                "user=john&password=s3cr3t&remember=true".getBytes(),
+                Charset.defaultCharset()
+        );
+
+        ConfigurableHttpObfuscator configurableHttpObfuscator =  ConfigurableHttpObfuscator.builder()
+                .jsonBodyFields("password")
+                .build();
+
+        String logString = configurableHttpObfuscator.obfuscate(request).toString();
+        Assert.assertThat(logString, allOf(containsString("user=john&password=******&remember=true"), not(containsString("s3cr3t"))));
+    }
+
+    @Test
+    public void obfuscateResponseTruncatingTextBody() throws Exception{
+
+        Map<String, Collection<String>> headers = new HashMap<>();
+        headers.put("Content-Type", Collections.singleton("text/html"));
+        Request request = Request.create(Request.HttpMethod.GET, "http://www.com.br:8999/v1/page", headers, null, Charset.defaultCharset());
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 1000; i++)
+            body.append("<p>").append(i).append("</p>");
+
+        Response response = Response.builder()
+                .headers(headers)
+                .body(body.toString().getBytes())
+                .status(502)
+                .reason("Bad Gateway")
+                .request(request)
+                .build();
+
+        ConfigurableHttpObfuscator configurableHttpObfuscator =  ConfigurableHttpObfuscator.builder()
+                .jsonBodyFields("name")
+                .build();
+
+        String logString = configurableHttpObfuscator.obfuscate(response).toString();
+        Assert.assertThat(logString, allOf(containsString("<p>0</p>"), not(containsString("<p>999</p>"))));
+        Assert.assertThat(logString, containsString("...[truncated: 4096 of " + body.length() + " bytes logged]"));
+    }
+
+    @Test
+    public void obfuscateResponseShorterThanDeclaredLengthAsTruncated() throws Exception{
+
+        Map<String, Collection<String>> headers = new HashMap<>();
+        Request request = Request.create(Request.HttpMethod.GET, "http://www.com.br:8999/v1/export", headers, null, Charset.defaultCharset());
+        byte[] prefix = "{\"name\":\"Secret Name\",\"items\":[1,2".getBytes();
+
+        Response response = Response.builder()
+                .headers(headers)
+                .body(new java.io.ByteArrayInputStream(prefix), 4096)
+                .status(200)
+                .reason("OK")
+                .request(request)
+                .build();
+
+        ConfigurableHttpObfuscator configurableHttpObfuscator =  ConfigurableHttpObfuscator.builder()
+                .jsonBodyFields("name")
+                .build();
+
+        String logString = configurableHttpObfuscator.obfuscate(response).toString();
+        Assert.assertThat(logString, allOf(not(containsString("Secret Name")), containsString("\"items\":[1,2")));
+        Assert.assertThat(logString, containsString("...[truncated: " + prefix.length + " of 4096 bytes logged]"));
+    }
+
+    @Test
+    public void obfuscateVendorJsonBodyAsJson() throws Exception{
+
+        Map<String, Collection<String>> headers = new HashMap<>();
+        headers.put("Content-Type", Collections.singleton("application/vnd.acme.v1.json; charset=UTF-8"));
+        String body = jsonMapper.write(new ObjectToObfuscate());
+        Request request = Request.create(Request.HttpMethod.POST, "http://www.com.br:8999/v1/objects", headers, body.getBytes(), Charset.defaultCharset());
+
+        ConfigurableHttpObfuscator configurableHttpObfuscator =  ConfigurableHttpObfuscator.builder()
+                .jsonBodyFields("name")
+                .build();
+
+        String logString = configurableHttpObfuscator.obfuscate(request).toString();
+        Assert.assertThat(logString, allOf(containsString("\"name\":\"***********\""), containsString("\"address\":\"Non Secret\"")));
+    }
+
+    @Test
+    public void obfuscateBinaryCodecBodyAsJson() throws Exception{
+
+        Map<String, Collection<String>> headers = new HashMap<>();
+        headers.put("Content-Type", Collections.singleton(BinaryCodec.SMILE.mediaType()));
+        java.io.ByteArrayOutputStream body = new java.io.ByteArrayOutputStream();
+        jsonMapper.getMAPPER().writeValue(BinaryCodec.SMILE.factory().createGenerator(body), new ObjectToObfuscate());
+        Request request = Request.create(Request.HttpMethod.POST, "http://www.com.br:8999/v1/objects", headers, body.toByteArray(), null);
+
+        ConfigurableHttpObfuscator configurableHttpObfuscator =  ConfigurableHttpObfuscator.builder()
+                .jsonBodyFields("name", "insideObject.insideName")
+                .build();
+
+        String logString = configurableHttpObfuscator.obfuscate(request).toString();
+        Assert.assertThat(logString, allOf(containsString("\"name\":\"***********\""), containsString("\"insideName\":\"**********\""), containsString("\"address\":\"Non Secret\"")));
+        Assert.assertThat(logString, not(containsString("Secret Name")));
+    }
+
+
     public static class ObjectToObfuscate{
         public String name = "Secret Name";
         public Integer age = 10;
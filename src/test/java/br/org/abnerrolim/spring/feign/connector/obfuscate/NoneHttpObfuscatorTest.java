@@ -26,7 +26,7 @@ public class NoneHttpObfuscatorTest {
         String body = jsonMapper.write(new ObjectToObfuscate());
 
         Request request = Request.create(
-                "GET",
+                Request.HttpMethod.GET,
                 "http://www.com.br:8999/v1/secret-code/230329324/public-code/243143DadeE/",
                 headers,
                 body.getBytes(),
@@ -48,7 +48,7 @@ public class NoneHttpObfuscatorTest {
 
         String body = jsonMapper.write(new  ObjectToObfuscate());
         Request request = Request.create(
-                "GET",
+                Request.HttpMethod.GET,
                 "http://www.com.br:8999/v1/secret-code/230329324/public-code/243143DadeE/",
                 headers,
                 body.getBytes(),
@@ -0,0 +1,62 @@
+package br.org.abnerrolim.spring.feign.connector.obfuscate;
+
+import feign.Request;
+import feign.Response;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.*;
+
+public class ResponseWrapperTest {
+
+    private final Request request = Request.create(
+            Request.HttpMethod.GET,
+            "http://www.com.br:8999/v1/code/230329324",
+            Collections.emptyMap(),
+            "secret".getBytes(),
+            Charset.defaultCharset()
+    );
+
+    @Test
+    public void shouldObfuscateResponseOnlyWhenRendered() {
+        Response response = Response.builder()
+                .headers(Collections.emptyMap())
+                .body("secret".getBytes())
+                .status(200)
+                .reason("OK")
+                .request(request)
+                .build();
+        AtomicInteger calls = new AtomicInteger();
+
+        ResponseWrapper wrapper = new ResponseWrapper(response, r -> {
+            calls.incrementAndGet();
+            return r.toBuilder().body("******".getBytes()).build();
+        });
+
+        Assert.assertThat(calls.get(), is(0));
+        Assert.assertThat(wrapper.getOriginalCopy(), sameInstance(response));
+        Assert.assertThat(wrapper.toString(), containsString("******"));
+        Assert.assertThat(wrapper.toString(), not(containsString("secret")));
+        Assert.assertThat(calls.get(), is(1));
+    }
+
+    @Test
+    public void shouldObfuscateRequestOnlyWhenRendered() {
+        AtomicInteger calls = new AtomicInteger();
+
+        RequestWrapper wrapper = new RequestWrapper(request, r -> {
+            calls.incrementAndGet();
+            return Request.create(r.httpMethod(), r.url(), r.headers(), "******".getBytes(), r.charset());
+        });
+
+        Assert.assertThat(calls.get(), is(0));
+        Assert.assertThat(wrapper.getOriginal(), sameInstance(request));
+        Assert.assertThat(wrapper.toString(), allOf(containsString("******"), not(containsString("secret"))));
+        Assert.assertThat(wrapper.toString(), containsString("******"));
+        Assert.assertThat(calls.get(), is(1));
+    }
+}
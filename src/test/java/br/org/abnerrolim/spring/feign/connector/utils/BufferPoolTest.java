@@ -0,0 +1,85 @@
+package br.org.abnerrolim.spring.feign.connector.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.*;
+
+public class BufferPoolTest {
+
+    @Test
+    public void shouldAcquireRoundedSizeClassesAndReuseReleasedBuffers() {
+        BufferPool pool = new BufferPool(64 * 1024, 2);
+
+        byte[] buffer = pool.acquire(1500);
+        Assert.assertThat(buffer.length, is(2048));
+        pool.release(buffer);
+
+        Assert.assertThat(pool.acquire(1025), sameInstance(buffer));
+        Assert.assertThat(pool.acquire(10).length, is(1024));
+    }
+
+    @Test
+    public void shouldKeepAtMostMaxBuffersPerClass() {
+        BufferPool pool = new BufferPool(64 * 1024, 1);
+        byte[] first = pool.acquire(1024);
+        byte[] second = pool.acquire(1024);
+        pool.release(first);
+        pool.release(second);
+
+        Assert.assertThat(pool.acquire(1024), sameInstance(first));
+        Assert.assertThat(pool.acquire(1024), not(sameInstance(second)));
+    }
+
+    @Test
+    public void shouldNotPoolBuffersBiggerThanMaxSize() {
+        BufferPool pool = new BufferPool(4 * 1024, 4);
+        byte[] big = pool.acquire(10_000);
+        Assert.assertThat(big.length, is(10_000));
+        pool.release(big);
+
+        Assert.assertThat(pool.acquire(10_000), not(sameInstance(big)));
+    }
+
+    @Test
+    public void shouldReadFullyWithAndWithoutDeclaredLength() throws Exception {
+        BufferPool pool = new BufferPool(4 * 1024, 4);
+        byte[] body = new byte[5000];
+        Arrays.fill(body, (byte) 'a');
+
+        Assert.assertThat(pool.readFully(new ByteArrayInputStream(body), body.length), equalTo(body));
+        Assert.assertThat(pool.readFully(new ByteArrayInputStream(body), null), equalTo(body));
+        Assert.assertThat(pool.readFully(new ByteArrayInputStream(body), 100), equalTo(body));
+        Assert.assertThat(pool.readFully(new ByteArrayInputStream(body), 6000), equalTo(body));
+    }
+
+    @Test
+    public void shouldNotTrustDeclaredLengthOverMaxBufferSize() throws Exception {
+        BufferPool pool = new BufferPool(4 * 1024, 4);
+        byte[] body = new byte[10_000];
+        Arrays.fill(body, (byte) 'a');
+
+        Assert.assertThat(pool.readFully(new ByteArrayInputStream(body), Integer.MAX_VALUE), equalTo(body));
+        Assert.assertThat(pool.readFully(new ByteArrayInputStream(body), 20_000), equalTo(body));
+    }
+
+    @Test
+    public void shouldGrowPooledOutputAndKeepContentAfterClose() {
+        BufferPool pool = new BufferPool(64 * 1024, 4);
+        PooledByteArrayOutputStream out = new PooledByteArrayOutputStream(pool, 1024);
+        byte[] chunk = new byte[700];
+        Arrays.fill(chunk, (byte) 'x');
+        out.write(chunk, 0, chunk.length);
+        out.write(chunk, 0, chunk.length);
+        out.close();
+
+        Assert.assertThat(out.size(), is(1400));
+        out.reset(1000);
+        Assert.assertThat(out.toByteArray().length, is(1000));
+        out.release();
+        Assert.assertThat(pool.acquire(2048).length, is(2048));
+    }
+}
@@ -0,0 +1,63 @@
+package br.org.abnerrolim.spring.feign.connector.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.*;
+
+public class FeignJsonMapperTest {
+
+    private final FeignJsonMapper jsonMapper = new FeignJsonMapper();
+
+    @Test
+    public void shouldCacheReadersAndWritersPerType() {
+        Type listOfItems = ParameterizedTypeImpl.make(List.class, new Type[]{Item.class}, null);
+
+        Assert.assertThat(jsonMapper.readerFor(listOfItems), sameInstance(jsonMapper.readerFor(ParameterizedTypeImpl.make(List.class, new Type[]{Item.class}, null))));
+        Assert.assertThat(jsonMapper.writerFor(Item.class), sameInstance(jsonMapper.writerFor(Item.class)));
+        Assert.assertThat(jsonMapper.readerFor(Item.class), not(sameInstance(jsonMapper.readerFor(listOfItems))));
+    }
+
+    @Test
+    public void shouldReadAndWriteBytesOfGenericTypes() {
+        Type listOfItems = ParameterizedTypeImpl.make(List.class, new Type[]{Item.class}, null);
+        List<Item> items = Arrays.asList(new Item("a", 1), new Item("b", 2));
+
+        byte[] json = jsonMapper.writeBytes(items);
+        List<Item> read = jsonMapper.readBytes(json, listOfItems);
+
+        Assert.assertThat(new String(json), equalTo("[{\"name\":\"a\",\"quantity\":1},{\"name\":\"b\",\"quantity\":2}]"));
+        Assert.assertThat(read, equalTo(items));
+        Assert.assertThat(jsonMapper.readBytes(new byte[0], listOfItems), is(nullValue()));
+    }
+
+    public static class Item {
+        public String name;
+        public Integer quantity;
+
+        public Item() {
+        }
+
+        Item(String name, Integer quantity) {
+            this.name = name;
+            this.quantity = quantity;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Item))
+                return false;
+            Item item = (Item) o;
+            return name.equals(item.name) && quantity.equals(item.quantity);
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode() * 31 + quantity;
+        }
+    }
+}
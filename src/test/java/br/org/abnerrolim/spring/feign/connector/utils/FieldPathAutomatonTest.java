@@ -0,0 +1,84 @@
+package br.org.abnerrolim.spring.feign.connector.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class FieldPathAutomatonTest {
+
+    FeignJsonMapper feignJsonMapper = new FeignJsonMapper();
+
+    @Test
+    public void shouldMatchDottedPaths() {
+        FieldPathAutomaton automaton = FieldPathAutomaton.compile("name", "billingAddress.street");
+
+        assertThat(automaton.root().field("name").isMasked(), is(true));
+        assertThat(automaton.root().field("billingAddress").isMasked(), is(false));
+        assertThat(automaton.root().field("billingAddress").field("street").isMasked(), is(true));
+        assertThat(automaton.root().field("secondaryAddress").isDead(), is(true));
+        assertThat(automaton.root().field("billingAddress").field("postalCode").isDead(), is(true));
+        assertThat(automaton.root().item().isDead(), is(true));
+    }
+
+    @Test
+    public void shouldMatchArrayItems() {
+        FieldPathAutomaton automaton = FieldPathAutomaton.compile("items[*].document", "[*].id");
+
+        assertThat(automaton.root().field("items").item().field("document").isMasked(), is(true));
+        assertThat(automaton.root().field("items").field("document").isDead(), is(true));
+        assertThat(automaton.root().item().field("id").isMasked(), is(true));
+    }
+
+    @Test
+    public void shouldMatchAnyField() {
+        FieldPathAutomaton automaton = FieldPathAutomaton.compile("*.token");
+
+        assertThat(automaton.root().field("first").field("token").isMasked(), is(true));
+        assertThat(automaton.root().field("second").field("token").isMasked(), is(true));
+        assertThat(automaton.root().field("token").isMasked(), is(false));
+    }
+
+    @Test
+    public void shouldMatchAtAnyDepth() {
+        FieldPathAutomaton automaton = FieldPathAutomaton.compile("**.password", "user.name");
+
+        assertThat(automaton.root().field("password").isMasked(), is(true));
+        assertThat(automaton.root().field("user").field("password").isMasked(), is(true));
+        assertThat(automaton.root().field("user").field("name").isMasked(), is(true));
+        assertThat(automaton.root().field("users").item().field("credentials").field("password").isMasked(), is(true));
+        assertThat(automaton.root().field("users").item().field("name").isMasked(), is(false));
+        assertThat(automaton.root().field("users").item().field("name").isDead(), is(false));
+    }
+
+    @Test
+    public void emptyAutomatonShouldBeDead() {
+        assertThat(FieldPathAutomaton.compile().isEmpty(), is(true));
+        assertThat(FieldPathAutomaton.compile("name").isEmpty(), is(false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectIndexSelectors() {
+        FieldPathAutomaton.compile("items[0].document");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectTrailingAnyDepth() {
+        FieldPathAutomaton.compile("items.**");
+    }
+
+    @Test
+    public void treeAndStreamShouldMaskTheSameNodes() throws Exception {
+        String body = "{\"items\":[{\"document\":\"123\",\"qty\":2},{\"document\":\"456\",\"qty\":3}],"
+                + "\"customer\":{\"auth\":{\"password\":\"pwd\"},\"name\":\"Joe\"},\"password\":\"root\"}";
+        FieldPathAutomaton automaton = FieldPathAutomaton.compile("items[*].document", "**.password");
+
+        JsonNode tree = StringObfuscationUtils.obfuscate(feignJsonMapper.read(body, JsonNode.class), automaton);
+        String stream = new JsonStreamObfuscator(feignJsonMapper.getMAPPER(), automaton).obfuscate(body.getBytes());
+
+        assertThat(stream, equalTo(feignJsonMapper.write(tree)));
+        assertThat(stream, allOf(not(containsString("123")), not(containsString("456")), not(containsString("pwd")),
+                not(containsString("root")), containsString("Joe"), containsString("\"qty\":3")));
+    }
+}
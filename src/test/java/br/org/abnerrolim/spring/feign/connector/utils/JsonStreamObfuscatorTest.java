@@ -0,0 +1,57 @@
+package br.org.abnerrolim.spring.feign.connector.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class JsonStreamObfuscatorTest {
+
+    FeignJsonMapper feignJsonMapper = new FeignJsonMapper();
+
+    @Test
+    public void shouldProduceSameOutputAsTreeObfuscation() throws Exception {
+        List<String> fields = Arrays.asList("name", "age", "collect",
+                "insideObject.insideName",
+                "insideObject.insideInsideObject.deepNameHideMe",
+                "notexist");
+        String body = feignJsonMapper.write(new StringObfuscationUtilsTest.ObjectToObfuscate());
+
+        JsonNode treeObfuscated = StringObfuscationUtils.obfuscate(feignJsonMapper.read(body, JsonNode.class), fields);
+        String streamObfuscated = new JsonStreamObfuscator(feignJsonMapper.getMAPPER(), fields).obfuscate(body.getBytes());
+
+        assertThat(streamObfuscated, equalTo(feignJsonMapper.write(treeObfuscated)));
+    }
+
+    @Test
+    public void shouldMaskValuesByType() throws Exception {
+        String body = "{\"text\":\"secret\",\"int\":12,\"float\":1.5,\"bool\":true,\"nil\":null,\"obj\":{\"a\":1},\"arr\":[1,2]}";
+        JsonStreamObfuscator obfuscator = new JsonStreamObfuscator(feignJsonMapper.getMAPPER(),
+                Arrays.asList("text", "int", "float", "bool", "nil", "obj", "arr"));
+
+        String obfuscated = obfuscator.obfuscate(body.getBytes());
+
+        assertThat(obfuscated, equalTo("{\"text\":\"******\",\"int\":0,\"float\":0,\"bool\":null,\"nil\":null,\"obj\":null,\"arr\":null}"));
+    }
+
+    @Test
+    public void shouldNotObfuscateWhenRootIsNotObject() throws Exception {
+        String body = "[{\"name\":\"visible\"}]";
+        JsonStreamObfuscator obfuscator = new JsonStreamObfuscator(feignJsonMapper.getMAPPER(), Collections.singletonList("name"));
+
+        assertThat(obfuscator.obfuscate(body.getBytes()), equalTo(body));
+    }
+
+    @Test
+    public void shouldOnlyMaskFullPath() throws Exception {
+        String body = "{\"a\":{\"name\":\"first\"},\"b\":{\"name\":\"second\"}}";
+        JsonStreamObfuscator obfuscator = new JsonStreamObfuscator(feignJsonMapper.getMAPPER(), Collections.singletonList("a.name"));
+
+        String obfuscated = obfuscator.obfuscate(body.getBytes());
+
+        assertThat(obfuscated, allOf(not(containsString("first")), containsString("second")));
+    }
+}
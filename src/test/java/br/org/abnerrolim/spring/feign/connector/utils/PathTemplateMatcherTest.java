@@ -0,0 +1,58 @@
+package br.org.abnerrolim.spring.feign.connector.utils;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class PathTemplateMatcherTest {
+
+    @Test
+    public void shouldReturnSegmentsToObfuscate() {
+        PathTemplateMatcher matcher = PathTemplateMatcher.compile(Arrays.asList(
+                "/v1/customer/${obfuscate}/book/ref/${value}",
+                "/v1/secret-code/${obfuscate}/public-code/${value}/"));
+
+        assertThat(matcher.match("/v1/customer/111111111111/book/ref/Ead1230as"), equalTo(Optional.of(Collections.singletonList(3))));
+        assertThat(matcher.match("/v1/secret-code/230329324/public-code/243143DadeE/"), equalTo(Optional.of(Collections.singletonList(3))));
+        assertThat(matcher.match("/v1/customer/111111111111/book"), equalTo(Optional.empty()));
+        assertThat(matcher.match("/v2/customer/111111111111/book/ref/Ead1230as"), equalTo(Optional.empty()));
+    }
+
+    @Test
+    public void literalSegmentsShouldHavePriorityOverPlaceholders() {
+        PathTemplateMatcher matcher = PathTemplateMatcher.compile(Arrays.asList(
+                "/v1/cards/${obfuscate}/${obfuscate}",
+                "/v1/cards/public/${value}",
+                "/v1/${value}/public/${obfuscate}"));
+
+        assertThat(matcher.match("/v1/cards/public/123"), equalTo(Optional.of(Collections.emptyList())));
+        assertThat(matcher.match("/v1/cards/secret/123"), equalTo(Optional.of(Arrays.asList(3, 4))));
+        assertThat(matcher.match("/v1/stores/public/123"), equalTo(Optional.of(Collections.singletonList(4))));
+    }
+
+    @Test
+    public void shouldBacktrackWhenLiteralBranchDoesNotMatch() {
+        PathTemplateMatcher matcher = PathTemplateMatcher.compile(Arrays.asList(
+                "/v1/cards/public",
+                "/v1/${value}/public/${obfuscate}"));
+
+        assertThat(matcher.match("/v1/cards/public/123"), equalTo(Optional.of(Collections.singletonList(4))));
+    }
+
+    @Test
+    public void shouldSplitLikeStringSplit() {
+        for (String path : Arrays.asList("/v1/a/b", "/v1/a/b/", "/v1//b", "v1/a", "/", "//a//")) {
+            assertThat(path, PathTemplateMatcher.split(path), equalTo(Arrays.asList(path.split("/"))));
+        }
+    }
+
+    @Test
+    public void emptyMatcherShouldNotMatch() {
+        PathTemplateMatcher matcher = PathTemplateMatcher.compile(Collections.emptyList());
+        assertThat(matcher.isEmpty(), is(true));
+        assertThat(matcher.match("/v1/a"), equalTo(Optional.empty()));
+    }
+}
@@ -0,0 +1,71 @@
+package br.org.abnerrolim.spring.feign.connector.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.*;
+
+public class RingBufferTest {
+
+    @Test
+    public void shouldRoundCapacityUpToPowerOfTwo() {
+        Assert.assertThat(new RingBuffer<String>(5).capacity(), is(8));
+        Assert.assertThat(new RingBuffer<String>(8).capacity(), is(8));
+        Assert.assertThat(new RingBuffer<String>(1).capacity(), is(2));
+    }
+
+    @Test
+    public void shouldRejectWhenFullAndKeepFifoOrder() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        for (int i = 0; i < 4; i++)
+            Assert.assertThat(buffer.offer(i), is(true));
+
+        Assert.assertThat(buffer.offer(4), is(false));
+        Assert.assertThat(buffer.size(), is(4));
+        Assert.assertThat(buffer.poll(), is(0));
+        Assert.assertThat(buffer.offer(4), is(true));
+        for (int i = 1; i <= 4; i++)
+            Assert.assertThat(buffer.poll(), is(i));
+        Assert.assertThat(buffer.poll(), is(nullValue()));
+        Assert.assertThat(buffer.isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldNotLoseElementsWithConcurrentProducers() throws Exception {
+        RingBuffer<Integer> buffer = new RingBuffer<>(64);
+        int producers = 4;
+        int perProducer = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int p = 0; p < producers; p++) {
+            int offset = p * perProducer;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(offset + i))
+                        Thread.yield();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+
+        Set<Integer> consumed = new HashSet<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (consumed.size() < producers * perProducer && System.nanoTime() < deadline) {
+            Integer element = buffer.poll();
+            if (element != null)
+                Assert.assertThat(consumed.add(element), is(true));
+        }
+        executor.shutdownNow();
+
+        Assert.assertThat(consumed.size(), is(producers * perProducer));
+    }
+}
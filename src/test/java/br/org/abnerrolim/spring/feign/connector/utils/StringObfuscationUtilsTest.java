@@ -3,6 +3,7 @@ package br.org.abnerrolim.spring.feign.connector.utils;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.DecimalNode;
 import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.node.TextNode;
 import org.junit.Assert;
 import org.junit.Test;
@@ -159,6 +160,17 @@ public class StringObfuscationUtilsTest {
         assertThat(obfuscated.insideObject.insideInsideObject.deepNameHideMe, equalTo(test.insideObject.insideInsideObject.deepNameHideMe));
     }
 
+    @Test
+    public void shouldReturnSameNodeWhenFieldIsMissing(){
+        ObjectNode node = (ObjectNode) feignJsonMapper.read(feignJsonMapper.write(new ObjectToObfuscate()), JsonNode.class);
+
+        assertThat(StringObfuscationUtils.obfuscate(node, "insideObject.missing"), sameInstance(node));
+        ObjectNode obfNode = StringObfuscationUtils.obfuscate(node, "name");
+        assertThat(obfNode, not(sameInstance(node)));
+        assertThat(obfNode.get("insideObject"), sameInstance(node.get("insideObject")));
+        assertThat(node.get("name").asText(), equalTo(new ObjectToObfuscate().name));
+    }
+
     @Test
     public void obfuscateUrl() throws Exception{
         String url1 = "http://wwww.mysecrets.com:900/v1/store/store1/customer/3232323/token/1223daeDEAed/";
@@ -167,6 +179,36 @@ public class StringObfuscationUtilsTest {
         assertThat(obfuscated, equalTo("http://wwww.mysecrets.com:900//v1/store/store1/customer/*******/token/************"));
     }
 
+    @Test
+    public void obfuscateShouldReuseMasksOfSameLength(){
+        assertThat(StringObfuscationUtils.obfuscate("secret"), equalTo("******"));
+        assertThat(StringObfuscationUtils.obfuscate("secret"), sameInstance(StringObfuscationUtils.obfuscate("public")));
+        assertThat(StringObfuscationUtils.obfuscate((String) null), equalTo(""));
+        assertThat(StringObfuscationUtils.obfuscate(""), equalTo(""));
+    }
+
+    @Test
+    public void obfuscateLongValues(){
+        char[] raw = new char[1000];
+        Arrays.fill(raw, 'a');
+        String obfuscated = StringObfuscationUtils.obfuscate(new String(raw));
+        assertThat(obfuscated.length(), is(1000));
+        assertThat(obfuscated.replace("*", ""), equalTo(""));
+    }
+
+    @Test
+    public void maskIntoCallerBuffers(){
+        assertThat(StringObfuscationUtils.mask(new StringBuilder("ab"), 3).append("cd").toString(), equalTo("ab***cd"));
+
+        char[] destination = "0123456789".toCharArray();
+        StringObfuscationUtils.mask(destination, 2, 5);
+        assertThat(new String(destination), equalTo("01*****789"));
+
+        char[] big = new char[600];
+        StringObfuscationUtils.mask(big, 0, 600);
+        assertThat(new String(big).replace("*", ""), equalTo(""));
+    }
+
     public static class ObjectToObfuscate{
         public String name = "Secret Name";
         public Integer age = 10;